@@ -0,0 +1,53 @@
+package com.skemu.rdf.benchmarks;
+
+import com.skemu.rdf.rdf2respec.SectionIndex;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Turning section titles into anchors with {@link SectionIndex#toAnchor}, which replaced {@code getSectionAnchor}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class AnchorBenchmark {
+
+    private static final String ALPHABET = "abcdefghijklmnopqrstuvwxyz ABCDEFGHIJKLMNOPQRSTUVWXYZ0123456789 (),'!:;-";
+
+    @Param("42")
+    public long seed;
+
+    private List<String> titles;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(seed);
+        titles = new ArrayList<>();
+        for (int i = 0; i < 1_000; i++) {
+            StringBuilder title = new StringBuilder();
+            int length = 5 + random.nextInt(40);
+            for (int j = 0; j < length; j++) {
+                title.append(ALPHABET.charAt(random.nextInt(ALPHABET.length())));
+            }
+            titles.add(title.toString());
+        }
+    }
+
+    @Benchmark
+    public void toAnchor(Blackhole blackhole) {
+        for (String title : titles) {
+            blackhole.consume(SectionIndex.toAnchor(title));
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.skemu.rdf.benchmarks;
+
+import com.skemu.rdf.rdf2respec.HierarchyIndex;
+import com.skemu.rdf.rdf2respec.Node;
+import com.skemu.rdf.rdf2respec.respecmapping.Direction;
+import com.skemu.rdf.util.ModelUtil;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import org.eclipse.rdf4j.model.Model;
+import org.eclipse.rdf4j.model.Resource;
+import org.eclipse.rdf4j.model.vocabulary.SKOS;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Building the node tree from the hierarchical relation, which replaced {@code buildTreeWithUpwardRelations}, and
+ * following property chains with {@link ModelUtil}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class HierarchyBenchmark extends OntologyState {
+
+    private Model model;
+
+    @Setup
+    public void setUp() {
+        model = generator().generate();
+    }
+
+    @Benchmark
+    public List<Node> buildNodesUpward() {
+        return HierarchyIndex.of(model, List.of(SKOS.BROADER))
+                .buildNodes(Direction.upward);
+    }
+
+    @Benchmark
+    public Set<Resource> firstResourcesInPropertyChain() {
+        return ModelUtil.getFirstResourcesInPropertyChain(model, "+", SKOS.BROADER);
+    }
+
+    @Benchmark
+    public Set<Resource> lastResourcesInPropertyChain() {
+        return ModelUtil.getLastResourcesInPropertyChain(model, "*", SKOS.BROADER);
+    }
+}
@@ -0,0 +1,99 @@
+package com.skemu.rdf.benchmarks;
+
+import com.skemu.rdf.rdf2respec.ModelIndex;
+import com.skemu.rdf.rdf2respec.Rdf2ReSpecMapper;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.eclipse.rdf4j.model.Model;
+import org.eclipse.rdf4j.model.Resource;
+import org.eclipse.rdf4j.model.vocabulary.RDF;
+import org.eclipse.rdf4j.model.vocabulary.SKOS;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Mapping resources to sections with {@link Rdf2ReSpecMapper#mapAsSection}. The issue benchmark only maps resources
+ * with issues, so it is dominated by the issue lookups. The single section benchmark maps one section per operation
+ * into a reused buffer, so {@code -prof gc} reports the allocation per section.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class MapperBenchmark extends OntologyState {
+
+    private Rdf2ReSpecMapper mapper;
+
+    private Model model;
+
+    private ModelIndex index;
+
+    private List<Resource> concepts;
+
+    private List<Resource> conceptsWithIssues;
+
+    private final StringBuilder sink = new StringBuilder();
+
+    private int next;
+
+    @Setup
+    public void setUp() {
+        mapper = Rdf2ReSpecMapper.from(OntologyGenerator.mapping());
+        model = generator().generate();
+        index = mapper.index(model);
+        concepts = new ArrayList<>(model.filter(null, RDF.TYPE, SKOS.CONCEPT).subjects());
+        conceptsWithIssues = new ArrayList<>(model.filter(null, OntologyGenerator.ISSUE, null).subjects());
+    }
+
+    @Benchmark
+    public ModelIndex indexModel() {
+        return mapper.index(model);
+    }
+
+    @Benchmark
+    public void mapAsSection(Blackhole blackhole) throws IOException {
+        Writer out = new Writer() {
+
+            @Override
+            public void write(char[] chars, int offset, int length) {
+                blackhole.consume(length);
+            }
+
+            @Override
+            public void flush() {
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+        for (Resource concept : concepts) {
+            mapper.mapAsSection(out, index, concept, 2);
+        }
+    }
+
+    @Benchmark
+    public int mapSingleSection() throws IOException {
+        if (next == concepts.size()) {
+            next = 0;
+        }
+        sink.setLength(0);
+        mapper.mapAsSection(sink, index, concepts.get(next++), 2);
+        return sink.length();
+    }
+
+    @Benchmark
+    public void processIssues(Blackhole blackhole) {
+        for (Resource concept : conceptsWithIssues) {
+            blackhole.consume(mapper.mapAsSection(index, concept, 2));
+        }
+    }
+}
@@ -0,0 +1,218 @@
+package com.skemu.rdf.benchmarks;
+
+import com.skemu.rdf.rdf2respec.respec.Paragraph;
+import com.skemu.rdf.rdf2respec.respecmapping.Direction;
+import com.skemu.rdf.rdf2respec.respecmapping.HierarchicalRelation;
+import com.skemu.rdf.rdf2respec.respecmapping.IssueMapping;
+import com.skemu.rdf.rdf2respec.respecmapping.ReSpecMapping;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import org.eclipse.rdf4j.model.IRI;
+import org.eclipse.rdf4j.model.Model;
+import org.eclipse.rdf4j.model.ValueFactory;
+import org.eclipse.rdf4j.model.impl.LinkedHashModel;
+import org.eclipse.rdf4j.model.impl.SimpleValueFactory;
+import org.eclipse.rdf4j.model.vocabulary.RDF;
+import org.eclipse.rdf4j.model.vocabulary.RDFS;
+import org.eclipse.rdf4j.model.vocabulary.SKOS;
+import org.eclipse.rdf4j.rio.RDFFormat;
+import org.eclipse.rdf4j.rio.Rio;
+
+/**
+ * Generates SKOS-like concept hierarchies. The same settings and seed always give the same model.
+ *
+ * <p>Concepts get a primary parent in breadth-first order, so the hierarchy fills up level by level with the given
+ * fan-out until the given depth is reached. A fraction of the concepts gets a second parent, and a fraction gets
+ * issues. Parents always come earlier in the generation order, so the hierarchy has no cycles.
+ */
+public class OntologyGenerator {
+
+    public static final String NAMESPACE = "http://example.org/";
+
+    private static final ValueFactory VF = SimpleValueFactory.getInstance();
+
+    public static final IRI ISSUE = VF.createIRI(NAMESPACE, "issue");
+
+    public static final IRI ISSUE_ID = VF.createIRI(NAMESPACE, "issueId");
+
+    private int size = 1_000;
+
+    private int depth = 6;
+
+    private int fanOut = 5;
+
+    private double polyhierarchyRatio = 0.1;
+
+    private double issueDensity = 0.05;
+
+    private long seed = 42;
+
+    public OntologyGenerator size(int size) {
+        this.size = size;
+        return this;
+    }
+
+    public OntologyGenerator depth(int depth) {
+        this.depth = depth;
+        return this;
+    }
+
+    public OntologyGenerator fanOut(int fanOut) {
+        this.fanOut = fanOut;
+        return this;
+    }
+
+    public OntologyGenerator polyhierarchyRatio(double polyhierarchyRatio) {
+        this.polyhierarchyRatio = polyhierarchyRatio;
+        return this;
+    }
+
+    public OntologyGenerator issueDensity(double issueDensity) {
+        this.issueDensity = issueDensity;
+        return this;
+    }
+
+    public OntologyGenerator seed(long seed) {
+        this.seed = seed;
+        return this;
+    }
+
+    public Model generate() {
+        Random random = new Random(seed);
+        Model model = new LinkedHashModel();
+        List<IRI> concepts = new ArrayList<>(size);
+        int[] depths = new int[size];
+        int issues = 0;
+
+        for (int i = 0; i < size; i++) {
+            IRI concept = VF.createIRI(NAMESPACE, "concept" + i);
+            concepts.add(concept);
+            model.add(concept, RDF.TYPE, SKOS.CONCEPT);
+            model.add(concept, SKOS.PREF_LABEL, VF.createLiteral("Concept " + i + " (generated)"));
+            model.add(concept, SKOS.DEFINITION, VF.createLiteral("Definition of concept " + i + "; generated, with seed " + seed));
+
+            if (i > 0) {
+                int parent = (i - 1) / Math.max(1, fanOut);
+                if (depths[parent] >= depth - 1) {
+                    parent = randomShallowerThan(random, depths, i, depth - 1);
+                }
+                depths[i] = depths[parent] + 1;
+                model.add(concept, SKOS.BROADER, concepts.get(parent));
+
+                if (i > 1 && random.nextDouble() < polyhierarchyRatio) {
+                    int otherParent = randomShallowerThan(random, depths, i, depth - 1);
+                    if (otherParent != parent) {
+                        model.add(concept, SKOS.BROADER, concepts.get(otherParent));
+                    }
+                }
+
+                if (random.nextDouble() < 0.3) {
+                    model.add(concept, RDFS.SEEALSO, concepts.get(random.nextInt(i)));
+                }
+            }
+
+            if (random.nextDouble() < issueDensity) {
+                IRI issue = VF.createIRI(NAMESPACE, "issue" + issues);
+                model.add(concept, ISSUE, issue);
+                model.add(issue, ISSUE_ID, VF.createLiteral(String.valueOf(issues * 2)));
+                if (random.nextBoolean()) {
+                    model.add(issue, ISSUE_ID, VF.createLiteral(String.valueOf(issues * 2 + 1)));
+                }
+                issues++;
+            }
+        }
+
+        return model;
+    }
+
+    /**
+     * A random earlier concept with a depth below the given maximum, falling back to the root.
+     */
+    private static int randomShallowerThan(Random random, int[] depths, int before, int maxDepth) {
+        for (int attempt = 0; attempt < 16; attempt++) {
+            int candidate = random.nextInt(before);
+            if (depths[candidate] < maxDepth) {
+                return candidate;
+            }
+        }
+        return 0;
+    }
+
+    public Path writeTurtle(Path file) throws IOException {
+        try (OutputStream output = Files.newOutputStream(file)) {
+            Rio.write(generate(), output, RDFFormat.TURTLE);
+        }
+        return file;
+    }
+
+    /**
+     * The mapping the benchmarks render generated models with.
+     */
+    public static ReSpecMapping mapping() {
+        Map<String, String> prefixes = new LinkedHashMap<>();
+        prefixes.put("skos", SKOS.NAMESPACE);
+        prefixes.put("rdfs", RDFS.NAMESPACE);
+        prefixes.put("ex", NAMESPACE);
+
+        Map<String, String> attributes = new LinkedHashMap<>();
+        attributes.put("Definition", "skos:definition");
+        attributes.put("See also", "rdfs:seeAlso");
+
+        HierarchicalRelation hierarchicalRelation = new HierarchicalRelation();
+        hierarchicalRelation.setDirection(Direction.upward);
+        hierarchicalRelation.setPredicates(List.of("skos:broader"));
+
+        return ReSpecMapping.builder()
+                .prefixes(prefixes)
+                .type(Paragraph.Type.hierarchical)
+                .hierarchicalRelation(hierarchicalRelation)
+                .sectionTitlePredicate("skos:prefLabel")
+                .attributeMapping(attributes)
+                .issueMapping(IssueMapping.builder()
+                        .issuePredicate("ex:issue")
+                        .issueIdPredicate("ex:issueId")
+                        .issueHtmlTag("aside")
+                        .build())
+                .build();
+    }
+
+    /**
+     * Writes a generated model as Turtle: {@code <file> [size] [depth] [fanOut] [polyhierarchyRatio] [issueDensity]
+     * [seed]}.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0) {
+            System.err.println("Usage: OntologyGenerator <file> [size] [depth] [fanOut] [polyhierarchyRatio] [issueDensity] [seed]");
+            System.exit(1);
+        }
+
+        OntologyGenerator generator = new OntologyGenerator();
+        if (args.length > 1) {
+            generator.size(Integer.parseInt(args[1]));
+        }
+        if (args.length > 2) {
+            generator.depth(Integer.parseInt(args[2]));
+        }
+        if (args.length > 3) {
+            generator.fanOut(Integer.parseInt(args[3]));
+        }
+        if (args.length > 4) {
+            generator.polyhierarchyRatio(Double.parseDouble(args[4]));
+        }
+        if (args.length > 5) {
+            generator.issueDensity(Double.parseDouble(args[5]));
+        }
+        if (args.length > 6) {
+            generator.seed(Long.parseLong(args[6]));
+        }
+        generator.writeTurtle(Paths.get(args[0]));
+    }
+}
@@ -0,0 +1,40 @@
+package com.skemu.rdf.benchmarks;
+
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Shape of the generated ontology, shared by the benchmark states.
+ */
+@State(Scope.Benchmark)
+public abstract class OntologyState {
+
+    @Param({"1000", "10000"})
+    public int size;
+
+    @Param("6")
+    public int depth;
+
+    @Param("5")
+    public int fanOut;
+
+    @Param("0.1")
+    public double polyhierarchyRatio;
+
+    @Param("0.05")
+    public double issueDensity;
+
+    @Param("42")
+    public long seed;
+
+    protected OntologyGenerator generator() {
+        return new OntologyGenerator()
+                .size(size)
+                .depth(depth)
+                .fanOut(fanOut)
+                .polyhierarchyRatio(polyhierarchyRatio)
+                .issueDensity(issueDensity)
+                .seed(seed);
+    }
+}
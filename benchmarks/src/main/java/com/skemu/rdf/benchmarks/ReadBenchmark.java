@@ -0,0 +1,43 @@
+package com.skemu.rdf.benchmarks;
+
+import com.skemu.rdf.util.RdfIoUtil;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import org.eclipse.rdf4j.model.Model;
+import org.eclipse.rdf4j.rio.RDFFormat;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Parsing a generated Turtle file with {@link RdfIoUtil#read}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ReadBenchmark extends OntologyState {
+
+    private Path file;
+
+    @Setup
+    public void setUp() throws IOException {
+        file = generator().writeTurtle(Files.createTempFile("rdf2respec-benchmark", ".ttl"));
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    public Model readTurtle() {
+        return RdfIoUtil.read(file.toFile(), RDFFormat.TURTLE);
+    }
+}
@@ -0,0 +1,102 @@
+package com.skemu.rdf.benchmarks;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
+import com.skemu.rdf.rdf2respec.Rdf2ReSpecCli;
+import com.skemu.rdf.rdf2respec.sources.Source;
+import com.skemu.rdf.rdf2respec.sources.Sources;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * End-to-end run of {@link Rdf2ReSpecCli} on a generated Turtle file, in a fresh JVM per invocation, so JVM startup and
+ * class loading are part of the measured time.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 10)
+public class StartupBenchmark extends OntologyState {
+
+    // space separated options of the launched JVM
+    @Param({"", "-XX:TieredStopAtLevel=1"})
+    public String jvmOptions;
+
+    private Path directory;
+
+    private Path config;
+
+    @Setup
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("rdf2respec-startup");
+        Path input = Files.createDirectories(directory.resolve("input"));
+        generator().writeTurtle(input.resolve("ontology.ttl"));
+
+        Source source = Source.builder()
+                .inputLocation(input.toString())
+                .ignorePathsWith(List.of())
+                .outputLocation(Files.createDirectories(directory.resolve("output")).toString())
+                .reSpecMapping(OntologyGenerator.mapping())
+                .build();
+        Sources sources = new Sources();
+        sources.getSources().add(source);
+
+        config = directory.resolve("sources.yml");
+        new ObjectMapper(new YAMLFactory())
+                .setSerializationInclusion(JsonInclude.Include.NON_NULL)
+                .writeValue(config.toFile(), sources);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            for (Path path : (Iterable<Path>) paths.sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(path);
+            }
+        }
+    }
+
+    @Benchmark
+    public int cli() throws IOException, InterruptedException {
+        List<String> command = new ArrayList<>();
+        command.add(Paths.get(System.getProperty("java.home"), "bin", "java").toString());
+        if (!jvmOptions.isBlank()) {
+            command.addAll(Arrays.asList(jvmOptions.trim().split("\\s+")));
+        }
+        command.add("-cp");
+        command.add(System.getProperty("java.class.path"));
+        command.add(Rdf2ReSpecCli.class.getName());
+        command.add(config.toString());
+
+        Process process = new ProcessBuilder(command)
+                .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                .redirectErrorStream(true)
+                .start();
+        int exitCode = process.waitFor();
+        if (exitCode != 0) {
+            throw new IllegalStateException(String.format("%s exited with %d", Rdf2ReSpecCli.class.getSimpleName(), exitCode));
+        }
+        return exitCode;
+    }
+}
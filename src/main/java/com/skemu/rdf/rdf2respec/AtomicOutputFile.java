@@ -0,0 +1,65 @@
+package com.skemu.rdf.rdf2respec;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.UUID;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * An output file that is written to a temporary file next to it, and only replaces the output once it is complete, so
+ * a render that fails halfway leaves the previous output in place. The temporary file is created like any other output,
+ * so the output keeps the permissions it would get when written directly.
+ */
+@Slf4j
+class AtomicOutputFile implements Closeable {
+
+    @Getter
+    private final Path path;
+
+    @Getter
+    private final Path temp;
+
+    private boolean committed;
+
+    private AtomicOutputFile(Path path, Path temp) {
+        this.path = path;
+        this.temp = temp;
+    }
+
+    static AtomicOutputFile of(Path path) {
+        Path temp = path.resolveSibling("." + path.getFileName() + "." + UUID.randomUUID() + ".tmp");
+        return new AtomicOutputFile(path, temp);
+    }
+
+    /**
+     * Replaces the output with the written temporary file.
+     */
+    void commit() throws IOException {
+        try {
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING);
+        }
+        committed = true;
+    }
+
+    /**
+     * Removes the temporary file when the output was not committed.
+     */
+    @Override
+    public void close() {
+        if (committed) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(temp);
+        } catch (IOException e) {
+            log.warn("Could not delete {}", temp, e);
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.skemu.rdf.rdf2respec;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.eclipse.rdf4j.model.IRI;
+import org.eclipse.rdf4j.model.Model;
+import org.eclipse.rdf4j.model.Resource;
+import org.eclipse.rdf4j.model.Statement;
+import org.eclipse.rdf4j.model.Value;
+
+/**
+ * Lookup of the distinct values of a fixed set of predicates per resource, built in a single pass per predicate over
+ * a model. Values are in model order, the same order filtering the model on the resource and predicate gives them in.
+ *
+ * <p>For models answered from the indexes of a store, {@link #perResource(Model, Collection)} reads the values of a
+ * resource when they are asked for instead, so they are never all in memory at once.
+ */
+public class AttributeIndex {
+
+    private final Map<IRI, Map<Resource, List<Value>>> valuesByPredicate;
+
+    // the model values are read from per resource, or null when they are indexed up front
+    private final Model model;
+
+    private AttributeIndex(Map<IRI, Map<Resource, List<Value>>> valuesByPredicate, Model model) {
+        this.valuesByPredicate = valuesByPredicate;
+        this.model = model;
+    }
+
+    public static AttributeIndex of(Model model, Collection<IRI> predicates) {
+        Map<IRI, Map<Resource, List<Value>>> valuesByPredicate = new HashMap<>();
+        for (IRI predicate : predicates) {
+            if (valuesByPredicate.containsKey(predicate)) {
+                continue;
+            }
+
+            Map<Resource, List<Value>> valuesByResource = new HashMap<>();
+            boolean inContexts = false;
+            for (Statement statement : model.filter(null, predicate, null)) {
+                valuesByResource.computeIfAbsent(statement.getSubject(), key -> new ArrayList<>(1))
+                        .add(statement.getObject());
+                inContexts |= statement.getContext() != null;
+            }
+
+            // the same value can only occur more than once in different contexts
+            boolean distinct = !inContexts;
+            valuesByResource.replaceAll((resource, values) -> distinct
+                    ? List.copyOf(values)
+                    : List.copyOf(new LinkedHashSet<>(values)));
+            valuesByPredicate.put(predicate, valuesByResource);
+        }
+
+        return new AttributeIndex(valuesByPredicate, null);
+    }
+
+    public static AttributeIndex perResource(Model model, Collection<IRI> predicates) {
+        // only the predicates are known up front, the values are read by get
+        Map<IRI, Map<Resource, List<Value>>> valuesByPredicate = new HashMap<>();
+        for (IRI predicate : predicates) {
+            valuesByPredicate.put(predicate, Map.of());
+        }
+        return new AttributeIndex(valuesByPredicate, model);
+    }
+
+    /**
+     * The values of a predicate for a resource, which are empty when the resource has none or the predicate is not
+     * indexed.
+     */
+    public List<Value> get(Resource resource, IRI predicate) {
+        Map<Resource, List<Value>> valuesByResource = valuesByPredicate.get(predicate);
+        if (valuesByResource == null) {
+            return List.of();
+        }
+        if (model != null) {
+            Set<Value> values = new LinkedHashSet<>();
+            model.filter(resource, predicate, null).forEach(statement -> values.add(statement.getObject()));
+            return List.copyOf(values);
+        }
+        return valuesByResource.getOrDefault(resource, List.of());
+    }
+}
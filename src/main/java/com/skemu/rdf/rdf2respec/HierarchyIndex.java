@@ -0,0 +1,79 @@
+package com.skemu.rdf.rdf2respec;
+
+import com.skemu.rdf.rdf2respec.respecmapping.Direction;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.eclipse.rdf4j.model.IRI;
+import org.eclipse.rdf4j.model.Model;
+import org.eclipse.rdf4j.model.Resource;
+import org.eclipse.rdf4j.model.Value;
+
+/**
+ * Adjacency index of the hierarchical relation statements in a model, built from a pass per predicate, so a
+ * repository-backed model is only asked for the statements of the relation. The index is direction agnostic: it records
+ * subject to object links, and {@link #buildNodes(Direction)} decides which end of a link is the parent.
+ */
+public class HierarchyIndex {
+
+    private final Set<Resource> subjects;
+
+    private final Map<Resource, List<Resource>> objectsBySubject;
+
+    private HierarchyIndex(Set<Resource> subjects, Map<Resource, List<Resource>> objectsBySubject) {
+        this.subjects = subjects;
+        this.objectsBySubject = objectsBySubject;
+    }
+
+    public static HierarchyIndex of(Model model, Collection<IRI> hierarchyPredicates) {
+        // subjects are kept in a hash set, so nodes come out in the same order as before; the objects of a subject
+        // are in predicate order, and in model order per predicate
+        Set<Resource> subjects = new HashSet<>();
+        Map<Resource, List<Resource>> objectsBySubject = new HashMap<>();
+
+        for (IRI predicate : new LinkedHashSet<>(hierarchyPredicates)) {
+            model.filter(null, predicate, null).forEach(statement -> {
+                Resource subject = statement.getSubject();
+                subjects.add(subject);
+
+                Value object = statement.getObject();
+                if (object instanceof Resource) {
+                    objectsBySubject.computeIfAbsent(subject, key -> new ArrayList<>())
+                            .add((Resource) object);
+                }
+            });
+        }
+
+        return new HierarchyIndex(subjects, objectsBySubject);
+    }
+
+    public List<Node> buildNodes(Direction direction) {
+        Map<Resource, Node> lookup = new LinkedHashMap<>();
+
+        for (Resource subject : subjects) {
+            Node thiz = lookup.computeIfAbsent(subject, Node::new);
+
+            for (Resource object : objectsBySubject.getOrDefault(subject, List.of())) {
+                Node other = lookup.computeIfAbsent(object, Node::new);
+                if (direction == Direction.upward) {
+                    link(other, thiz);
+                } else {
+                    link(thiz, other);
+                }
+            }
+        }
+
+        return new ArrayList<>(lookup.values());
+    }
+
+    private static void link(Node parent, Node child) {
+        parent.addChild(child);
+        child.addParent(parent);
+    }
+}
@@ -0,0 +1,161 @@
+package com.skemu.rdf.rdf2respec;
+
+import com.skemu.rdf.rdf2respec.respecmapping.CyclePolicy;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Depth-first traversal of a {@link Node} graph with an explicit stack, so the depth of a hierarchy is not limited by
+ * the JVM stack. A child that is already on the path from the root closes a cycle, and is handled according to the
+ * {@link CyclePolicy}. Nodes that are part of, or below, a cycle without a root are never reached from a root, which
+ * {@link #checkReached(Collection)} reports according to the same policy.
+ */
+@Slf4j
+class HierarchyTraversal {
+
+    private static final int REPORTED_UNREACHED = 10;
+
+    private final CyclePolicy cyclePolicy;
+
+    private final Set<Node> reached = Collections.newSetFromMap(new IdentityHashMap<>());
+
+    HierarchyTraversal(CyclePolicy cyclePolicy) {
+        this.cyclePolicy = cyclePolicy == null ? CyclePolicy.report : cyclePolicy;
+    }
+
+    interface Visitor {
+
+        /**
+         * @return whether to descend into the children of the node, {@link #exit(Node, int)} is only called for nodes
+         * that are descended into
+         */
+        boolean enter(Node node, int depth) throws IOException;
+
+        void exit(Node node, int depth) throws IOException;
+
+        /**
+         * Called when the edge from parent to child is left out to break a cycle.
+         */
+        default void cycle(Node parent, Node child) {
+        }
+    }
+
+    void traverse(Node root, int depth, Visitor visitor) throws IOException {
+        reached.add(root);
+        if (!visitor.enter(root, depth)) {
+            return;
+        }
+
+        Deque<Frame> path = new ArrayDeque<>();
+        Set<Node> onPath = Collections.newSetFromMap(new IdentityHashMap<>());
+        path.push(new Frame(root, depth));
+        onPath.add(root);
+
+        while (!path.isEmpty()) {
+            Frame frame = path.peek();
+            if (!frame.children.hasNext()) {
+                path.pop();
+                onPath.remove(frame.node);
+                visitor.exit(frame.node, frame.depth);
+                continue;
+            }
+
+            Node child = frame.children.next();
+            if (onPath.contains(child)) {
+                handleCycle(path, frame.node, child);
+                visitor.cycle(frame.node, child);
+                continue;
+            }
+
+            reached.add(child);
+            if (visitor.enter(child, frame.depth + 1)) {
+                path.push(new Frame(child, frame.depth + 1));
+                onPath.add(child);
+            }
+        }
+    }
+
+    /**
+     * Counts the nodes reached by another traversal of the same nodes as reached by this one.
+     */
+    void addReached(HierarchyTraversal other) {
+        reached.addAll(other.reached);
+    }
+
+    /**
+     * Checks whether all nodes have been reached by the traversals so far.
+     */
+    void checkReached(Collection<Node> nodes) {
+        if (cyclePolicy == CyclePolicy.ignore || reached.size() == nodes.size()) {
+            return;
+        }
+
+        List<String> unreached = nodes.stream()
+                .filter(node -> !reached.contains(node))
+                .map(node -> String.valueOf(node.getSource()))
+                .collect(Collectors.toList());
+        if (unreached.isEmpty()) {
+            return;
+        }
+
+        String message = String.format("%d resources are part of, or below, a cycle in the hierarchical relation without "
+                + "a root, and are not rendered: %s%s", unreached.size(),
+                String.join(", ", unreached.subList(0, Math.min(REPORTED_UNREACHED, unreached.size()))),
+                unreached.size() > REPORTED_UNREACHED ? ", ..." : "");
+        if (cyclePolicy == CyclePolicy.fail) {
+            throw new Rdf2ReSpecException(message);
+        }
+        log.warn(message);
+    }
+
+    private void handleCycle(Deque<Frame> path, Node parent, Node child) {
+        if (cyclePolicy == CyclePolicy.ignore) {
+            return;
+        }
+
+        // the path is a stack, its descending iterator runs from the root to the parent
+        List<Node> cycle = new ArrayList<>();
+        Iterator<Frame> fromRoot = path.descendingIterator();
+        while (fromRoot.hasNext()) {
+            Node ancestor = fromRoot.next().node;
+            if (ancestor == child || !cycle.isEmpty()) {
+                cycle.add(ancestor);
+            }
+        }
+        cycle.add(child);
+
+        String description = cycle.stream()
+                .map(node -> String.valueOf(node.getSource()))
+                .collect(Collectors.joining(" -> "));
+        if (cyclePolicy == CyclePolicy.fail) {
+            throw new Rdf2ReSpecException(String.format("Cycle in hierarchical relation: %s", description));
+        }
+        log.warn("Breaking cycle in hierarchical relation between {} and {}: {}", parent.getSource(), child.getSource(),
+                description);
+    }
+
+    private static class Frame {
+
+        private final Node node;
+
+        private final int depth;
+
+        private final Iterator<Node> children;
+
+        Frame(Node node, int depth) {
+            this.node = node;
+            this.depth = depth;
+            this.children = node.getChildren().iterator();
+        }
+    }
+}
@@ -0,0 +1,248 @@
+package com.skemu.rdf.rdf2respec;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.skemu.rdf.rdf2respec.respecmapping.ReSpecMapping;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.codec.digest.DigestUtils;
+
+/**
+ * Keeps track of which inputs of a source have to be rendered again, based on a manifest stored in the output
+ * location. The manifest records a content hash for every input, together with a hash of the ReSpec mapping, including
+ * the shard depth, and the tool version. When either of the latter changes, every input is rendered again.
+ *
+ * <p>File size and modification time are recorded as well, so unchanged inputs are recognized without hashing them.
+ */
+@Slf4j
+class IncrementalBuild {
+
+    static final String MANIFEST_FILE_NAME = ".rdf2respec-manifest.json";
+
+    private static final String TOOL_VERSION = Optional.ofNullable(IncrementalBuild.class.getPackage().getImplementationVersion())
+            .orElse("development");
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper()
+            .enable(SerializationFeature.INDENT_OUTPUT)
+            .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+
+    private final Path manifestPath;
+
+    private final Manifest previous;
+
+    private final boolean previousValid;
+
+    private final Manifest current;
+
+    private final Map<String, ManifestEntry> entries = new ConcurrentHashMap<>();
+
+    // whether the current manifest starts from the entries of the previous one
+    private final boolean resumed;
+
+    // whether outputs come with shards, which are deleted with them
+    private final boolean sharded;
+
+    private IncrementalBuild(Path manifestPath, Manifest previous, boolean previousValid, Manifest current,
+            boolean resumed, boolean sharded) {
+        this.manifestPath = manifestPath;
+        this.previous = previous;
+        this.previousValid = previousValid;
+        this.current = current;
+        this.resumed = resumed;
+        this.sharded = sharded;
+    }
+
+    static IncrementalBuild disabled() {
+        return new IncrementalBuild(null, new Manifest(), false, new Manifest(), false, false);
+    }
+
+    static IncrementalBuild start(Path outputLocation, ReSpecMapping mapping, int shardDepth) {
+        Path manifestPath = outputLocation.resolve(MANIFEST_FILE_NAME);
+        // unsharded outputs keep the hash of earlier versions
+        String mappingHash = shardDepth == 0
+                ? hashMapping(mapping)
+                : DigestUtils.sha256Hex(hashMapping(mapping) + ";shardDepth=" + shardDepth);
+        Manifest current = new Manifest(TOOL_VERSION, mappingHash, new TreeMap<>());
+        Manifest previous = readManifest(manifestPath).orElseGet(Manifest::new);
+        boolean previousValid = Objects.equals(previous.getToolVersion(), current.getToolVersion())
+                && Objects.equals(previous.getMappingHash(), current.getMappingHash());
+
+        return new IncrementalBuild(manifestPath, previous, previousValid, current, false, shardDepth > 0);
+    }
+
+    /**
+     * Continues the manifest of the previous run while regenerating changed inputs. Every input is rendered again, and
+     * the entries of the other inputs are kept, so the next run still skips them.
+     */
+    static IncrementalBuild resume(Path outputLocation, ReSpecMapping mapping, int shardDepth) {
+        IncrementalBuild started = start(outputLocation, mapping, shardDepth);
+        if (started.previousValid) {
+            started.current.getEntries().putAll(started.previous.getEntries());
+        }
+        return new IncrementalBuild(started.manifestPath, started.previous, false, started.current, true,
+                started.sharded);
+    }
+
+    boolean isUpToDate(Path input, Path output) {
+        if (manifestPath == null) {
+            return false;
+        }
+
+        String key = key(input);
+        ManifestEntry previousEntry = previous.getEntries().get(key);
+        ManifestEntry entry = fingerprint(input, output, previousEntry);
+        entries.put(key, entry);
+        if (resumed) {
+            // until it is completed again, the output of the input may not match its entry
+            removed(input);
+        }
+
+        return previousValid && previousEntry != null && Files.exists(output) && previousEntry.getHash().equals(entry.getHash())
+                && previousEntry.getOutput().equals(entry.getOutput());
+    }
+
+    synchronized void completed(Path input) {
+        String key = key(input);
+        if (entries.containsKey(key)) {
+            current.getEntries().put(key, entries.get(key));
+        }
+    }
+
+    synchronized void removed(Path input) {
+        current.getEntries().remove(key(input));
+    }
+
+    /**
+     * Removes outputs of inputs that no longer exist, and stores the manifest for the next run. Inputs that were not
+     * reported as completed are left out of the manifest, so they are tried again next time.
+     */
+    synchronized void finish(Collection<Path> outputs) {
+        if (manifestPath == null) {
+            return;
+        }
+
+        Set<String> currentOutputs = new HashSet<>();
+        outputs.forEach(output -> currentOutputs.add(output.toAbsolutePath().normalize().toString()));
+
+        previous.getEntries().values().stream()
+                .map(ManifestEntry::getOutput)
+                .filter(output -> !currentOutputs.contains(output))
+                .forEach(this::deleteOutput);
+        save();
+    }
+
+    /**
+     * Stores the manifest for the next run.
+     */
+    synchronized void save() {
+        if (manifestPath == null) {
+            return;
+        }
+
+        try {
+            Files.writeString(manifestPath, OBJECT_MAPPER.writeValueAsString(current));
+        } catch (IOException e) {
+            throw new Rdf2ReSpecException(String.format("Could not write build manifest %s", manifestPath), e);
+        }
+    }
+
+    private static ManifestEntry fingerprint(Path input, Path output, ManifestEntry previousEntry) {
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(input, BasicFileAttributes.class);
+            long size = attributes.size();
+            long lastModified = attributes.lastModifiedTime().toMillis();
+
+            String hash;
+            if (previousEntry != null && previousEntry.getSize() == size && previousEntry.getLastModified() == lastModified) {
+                hash = previousEntry.getHash();
+            } else {
+                try (InputStream inputStream = Files.newInputStream(input)) {
+                    hash = DigestUtils.sha256Hex(inputStream);
+                }
+            }
+
+            return new ManifestEntry(size, lastModified, hash, output.toAbsolutePath().normalize().toString());
+        } catch (IOException e) {
+            throw new Rdf2ReSpecException(String.format("Could not fingerprint %s", input), e);
+        }
+    }
+
+    private static String hashMapping(ReSpecMapping mapping) {
+        try {
+            return DigestUtils.sha256Hex(OBJECT_MAPPER.writeValueAsString(mapping));
+        } catch (JsonProcessingException e) {
+            throw new Rdf2ReSpecException("Could not hash ReSpec mapping", e);
+        }
+    }
+
+    private static Optional<Manifest> readManifest(Path manifestPath) {
+        if (!Files.exists(manifestPath)) {
+            return Optional.empty();
+        }
+
+        try {
+            return Optional.of(OBJECT_MAPPER.readValue(manifestPath.toFile(), Manifest.class));
+        } catch (IOException e) {
+            log.warn("Ignoring unreadable build manifest {}", manifestPath, e);
+            return Optional.empty();
+        }
+    }
+
+    private void deleteOutput(String output) {
+        try {
+            Files.deleteIfExists(Path.of(output));
+            if (sharded) {
+                ShardPlan.deleteShards(Path.of(output));
+            }
+        } catch (IOException e) {
+            log.warn("Could not delete stale output {}", output, e);
+        }
+    }
+
+    private static String key(Path input) {
+        return input.toAbsolutePath().normalize().toString();
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    static class Manifest {
+
+        private String toolVersion;
+
+        private String mappingHash;
+
+        private Map<String, ManifestEntry> entries = new TreeMap<>();
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    static class ManifestEntry {
+
+        private long size;
+
+        private long lastModified;
+
+        private String hash;
+
+        private String output;
+    }
+}
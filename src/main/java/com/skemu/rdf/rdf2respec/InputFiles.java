@@ -0,0 +1,223 @@
+package com.skemu.rdf.rdf2respec;
+
+import com.skemu.rdf.rdf2respec.sources.Source;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileSystem;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * The input files of a source: the files in its input location with one of its file extensions, that match one of its
+ * include patterns when it has any, and that are not ignored or excluded. Patterns are globs relative to the input
+ * location, compiled once. Directories that are ignored or excluded are not descended into.
+ *
+ * <p>Directories are listed in parallel, but files are returned in the order {@link Files#walk} visits them, so the
+ * result does not depend on scheduling.
+ */
+class InputFiles {
+
+    private final Path location;
+
+    private final List<String> suffixes;
+
+    private final List<String> ignores;
+
+    private final List<PathMatcher> includes;
+
+    private final List<PathMatcher> excludes;
+
+    private InputFiles(Path location, List<String> suffixes, List<String> ignores, List<PathMatcher> includes,
+            List<PathMatcher> excludes) {
+        this.location = location;
+        this.suffixes = suffixes;
+        this.ignores = ignores;
+        this.includes = includes;
+        this.excludes = excludes;
+    }
+
+    static InputFiles of(Source source) {
+        Path location = Paths.get(source.getInputLocation());
+        List<String> suffixes = source.getFileExtensions()
+                .stream()
+                .map(extension -> "." + extension)
+                .collect(Collectors.toList());
+        return new InputFiles(location, suffixes, orEmpty(source.getIgnorePathsWith()),
+                compile(location.getFileSystem(), source.getIncludePaths()),
+                compile(location.getFileSystem(), source.getExcludePaths()));
+    }
+
+    private static List<String> orEmpty(List<String> values) {
+        return values == null ? List.of() : values;
+    }
+
+    private static List<PathMatcher> compile(FileSystem fileSystem, List<String> globs) {
+        return orEmpty(globs).stream()
+                .map(glob -> fileSystem.getPathMatcher("glob:" + glob))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Whether a path in the input location is an input file, judging by its path only.
+     */
+    boolean accepts(Path path) {
+        Path relative = relativize(path);
+        if (relative == null || !acceptsFile(path, relative)) {
+            return false;
+        }
+
+        for (Path directory = relative.getParent(); directory != null; directory = directory.getParent()) {
+            if (matchesAny(excludes, directory)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Walks the input location, handing every input file to the consumer as soon as it is found. The consumer is called
+     * from several threads, in no particular order.
+     *
+     * @return the input files, in walk order
+     */
+    List<Path> walk(Consumer<Path> found) throws IOException {
+        BasicFileAttributes attributes = Files.readAttributes(location, BasicFileAttributes.class);
+        if (!attributes.isDirectory()) {
+            if (!isIgnored(location) && hasSuffix(location)) {
+                found.accept(location);
+                return List.of(location);
+            }
+            return List.of();
+        }
+
+        try {
+            return ForkJoinPool.commonPool().invoke(new DirectoryWalk(location, found));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    // null when the path is not in the input location
+    private Path relativize(Path path) {
+        Path absoluteLocation = location.toAbsolutePath().normalize();
+        Path absolutePath = path.toAbsolutePath().normalize();
+        return absolutePath.startsWith(absoluteLocation) ? absoluteLocation.relativize(absolutePath) : null;
+    }
+
+    private boolean acceptsDirectory(Path directory, Path relative) {
+        return !isIgnored(directory) && !matchesAny(excludes, relative);
+    }
+
+    private boolean acceptsFile(Path file, Path relative) {
+        return hasSuffix(file) && !isIgnored(file)
+                && (includes.isEmpty() || matchesAny(includes, relative))
+                && !matchesAny(excludes, relative);
+    }
+
+    private boolean isIgnored(Path path) {
+        String pathString = path.toString();
+        for (String ignore : ignores) {
+            if (pathString.contains(ignore)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean hasSuffix(Path path) {
+        String pathString = path.toString();
+        for (String suffix : suffixes) {
+            if (pathString.endsWith(suffix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean matchesAny(List<PathMatcher> matchers, Path path) {
+        for (PathMatcher matcher : matchers) {
+            if (matcher.matches(path)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Lists a directory and walks its subdirectories in tasks of their own. Files of a subdirectory take the place of
+     * the subdirectory in the listing.
+     */
+    private class DirectoryWalk extends RecursiveTask<List<Path>> {
+
+        private final Path directory;
+
+        private final Consumer<Path> found;
+
+        // the number of files in the parent listing before this directory
+        private int position;
+
+        DirectoryWalk(Path directory, Consumer<Path> found) {
+            this.directory = directory;
+            this.found = found;
+        }
+
+        @Override
+        protected List<Path> compute() {
+            List<Path> files = new ArrayList<>();
+            List<DirectoryWalk> subdirectories = new ArrayList<>();
+            try (DirectoryStream<Path> entries = Files.newDirectoryStream(directory)) {
+                for (Path entry : entries) {
+                    Path relative = location.relativize(entry);
+                    BasicFileAttributes attributes = Files.readAttributes(entry, BasicFileAttributes.class,
+                            LinkOption.NOFOLLOW_LINKS);
+                    if (attributes.isDirectory()) {
+                        if (acceptsDirectory(entry, relative)) {
+                            DirectoryWalk subdirectory = new DirectoryWalk(entry, found);
+                            subdirectory.position = files.size();
+                            subdirectory.fork();
+                            subdirectories.add(subdirectory);
+                        }
+                    } else if (isRegularFile(entry, attributes) && acceptsFile(entry, relative)) {
+                        found.accept(entry);
+                        files.add(entry);
+                    }
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return joinAll(subdirectories, files);
+        }
+
+        private List<Path> joinAll(List<DirectoryWalk> subdirectories, List<Path> files) {
+            if (subdirectories.isEmpty()) {
+                return files;
+            }
+
+            List<Path> walked = new ArrayList<>(files.size());
+            int from = 0;
+            for (DirectoryWalk subdirectory : subdirectories) {
+                walked.addAll(files.subList(from, subdirectory.position));
+                from = subdirectory.position;
+                walked.addAll(subdirectory.join());
+            }
+            walked.addAll(files.subList(from, files.size()));
+            return walked;
+        }
+
+        // symbolic links are not followed into directories, but links to files are read like Files.walk does
+        private boolean isRegularFile(Path entry, BasicFileAttributes attributes) {
+            return attributes.isRegularFile() || attributes.isSymbolicLink() && Files.isRegularFile(entry);
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.skemu.rdf.rdf2respec;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import lombok.AllArgsConstructor;
+import org.eclipse.rdf4j.model.IRI;
+import org.eclipse.rdf4j.model.Model;
+import org.eclipse.rdf4j.model.Resource;
+import org.eclipse.rdf4j.model.Statement;
+import org.eclipse.rdf4j.model.Value;
+
+/**
+ * Lookup of issue ids per issue resource, built in a single pass over a model. Ids are returned in model order, the
+ * same order a scan over the whole model would produce them in.
+ */
+public class IssueIndex {
+
+    private final Map<Resource, List<IssueId>> idsByIssue;
+
+    private IssueIndex(Map<Resource, List<IssueId>> idsByIssue) {
+        this.idsByIssue = idsByIssue;
+    }
+
+    public static IssueIndex of(Model model, IRI issueIdPredicate) {
+        Map<Resource, List<IssueId>> idsByIssue = new HashMap<>();
+
+        int position = 0;
+        for (Statement statement : model.filter(null, issueIdPredicate, null)) {
+            idsByIssue.computeIfAbsent(statement.getSubject(), key -> new ArrayList<>())
+                    .add(new IssueId(position++, statement.getObject().stringValue()));
+        }
+
+        return new IssueIndex(idsByIssue);
+    }
+
+    public List<String> getIssueIds(Collection<Value> issues) {
+        List<IssueId> issueIds = new ArrayList<>();
+        for (Value issue : issues) {
+            issueIds.addAll(idsByIssue.getOrDefault(issue, List.of()));
+        }
+
+        if (issues.size() > 1) {
+            issueIds.sort(Comparator.comparingInt(issueId -> issueId.position));
+        }
+
+        return issueIds.stream()
+                .map(issueId -> issueId.id)
+                .collect(Collectors.toList());
+    }
+
+    @AllArgsConstructor
+    private static class IssueId {
+
+        private final int position;
+
+        private final String id;
+    }
+}
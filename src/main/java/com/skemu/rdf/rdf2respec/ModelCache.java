@@ -0,0 +1,127 @@
+package com.skemu.rdf.rdf2respec;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
+import lombok.Value;
+import org.eclipse.rdf4j.model.Model;
+
+/**
+ * Cache of parsed models shared between processors, keyed by file path and modification time, and by the options
+ * used to parse the file, if any. The cache is bounded by the total number of statements it holds and evicts the least
+ * recently used models first. Concurrent requests for the same file wait for a single parse.
+ *
+ * <p>Cached models are unmodifiable, since they can be handed out to several sources at once.
+ */
+public class ModelCache {
+
+    private final long maxStatements;
+
+    private final Map<Key, CompletableFuture<Model>> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    private final Map<Key, Integer> sizes = new HashMap<>();
+
+    private long cachedStatements;
+
+    public ModelCache(long maxStatements) {
+        this.maxStatements = maxStatements;
+    }
+
+    public Model get(Path path, Function<Path, Model> loader) {
+        return get(path, null, loader);
+    }
+
+    public Model get(Path path, Object parseOptions, Function<Path, Model> loader) {
+        Key key = Key.of(path, parseOptions);
+
+        CompletableFuture<Model> entry;
+        boolean load = false;
+        synchronized (this) {
+            entry = entries.get(key);
+            if (entry == null) {
+                entry = new CompletableFuture<>();
+                entries.put(key, entry);
+                load = true;
+            }
+        }
+
+        if (load) {
+            try {
+                Model model = loader.apply(path).unmodifiable();
+                entry.complete(model);
+                loaded(key, model.size());
+            } catch (RuntimeException e) {
+                synchronized (this) {
+                    entries.remove(key);
+                }
+                entry.completeExceptionally(e);
+                throw e;
+            }
+        }
+
+        try {
+            return entry.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    private synchronized void loaded(Key key, int size) {
+        if (!entries.containsKey(key)) {
+            // superseded by a newer version of the file while parsing
+            return;
+        }
+
+        sizes.put(key, size);
+        cachedStatements += size;
+
+        Iterator<Key> leastRecentlyUsed = entries.keySet().iterator();
+        while (leastRecentlyUsed.hasNext()) {
+            Key cached = leastRecentlyUsed.next();
+            // a newer version of a file makes the older ones unreachable
+            boolean stale = cached.getPath().equals(key.getPath()) && cached.getLastModified() != key.getLastModified();
+            // models that are still being parsed have no size yet and are never evicted for size
+            boolean overSize = cachedStatements > maxStatements && sizes.containsKey(cached);
+            if (stale || overSize) {
+                evict(cached);
+                leastRecentlyUsed.remove();
+            }
+        }
+    }
+
+    private void evict(Key key) {
+        Integer size = sizes.remove(key);
+        if (size != null) {
+            cachedStatements -= size;
+        }
+    }
+
+    @Value
+    private static class Key {
+
+        Path path;
+
+        long lastModified;
+
+        Object parseOptions;
+
+        static Key of(Path path, Object parseOptions) {
+            Path absolutePath = path.toAbsolutePath().normalize();
+            try {
+                return new Key(absolutePath, Files.getLastModifiedTime(absolutePath).toMillis(), parseOptions);
+            } catch (IOException e) {
+                throw new Rdf2ReSpecException(String.format("Cannot read modification time of %s", path), e);
+            }
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.skemu.rdf.rdf2respec;
+
+import java.util.List;
+import java.util.Map;
+import lombok.AccessLevel;
+import lombok.Getter;
+import org.eclipse.rdf4j.model.Model;
+import org.eclipse.rdf4j.model.Resource;
+
+/**
+ * A model together with the lookups built from it once, before its resources are mapped to sections. The section
+ * anchors are those of the document that is rendered. When the output is sharded, the index also knows the anchors of
+ * the other documents, so links to sections in other documents point there.
+ */
+@Getter
+public class ModelIndex {
+
+    private final Model model;
+
+    private final IssueIndex issues;
+
+    private final SectionIndex sections;
+
+    private final AttributeIndex attributes;
+
+    @Getter(AccessLevel.NONE)
+    private final Map<Resource, ShardPlan.Document> documents;
+
+    @Getter(AccessLevel.NONE)
+    private final Map<ShardPlan.Document, SectionIndex> documentSections;
+
+    // null when the output is not sharded
+    @Getter(AccessLevel.NONE)
+    private final ShardPlan.Document document;
+
+    public ModelIndex(Model model, IssueIndex issues, SectionIndex sections, AttributeIndex attributes) {
+        this(model, issues, sections, attributes, Map.of(), Map.of(), null);
+    }
+
+    private ModelIndex(Model model, IssueIndex issues, SectionIndex sections, AttributeIndex attributes,
+            Map<Resource, ShardPlan.Document> documents, Map<ShardPlan.Document, SectionIndex> documentSections,
+            ShardPlan.Document document) {
+        this.model = model;
+        this.issues = issues;
+        this.sections = sections;
+        this.attributes = attributes;
+        this.documents = documents;
+        this.documentSections = documentSections;
+        this.document = document;
+    }
+
+    /**
+     * The same lookups, for rendering a document with a heading for each of the resources, in order.
+     */
+    ModelIndex withHeadings(List<Resource> headings) {
+        return new ModelIndex(model, issues, sections.inDocumentOrder(headings), attributes, documents, documentSections,
+                document);
+    }
+
+    /**
+     * The same lookups, for rendering one document of a sharded output.
+     *
+     * @param documentSections the sections of every document, with their anchors in document order
+     */
+    ModelIndex inDocument(Map<Resource, ShardPlan.Document> documents,
+            Map<ShardPlan.Document, SectionIndex> documentSections, ShardPlan.Document document) {
+        return new ModelIndex(model, issues, documentSections.get(document), attributes, documents, documentSections,
+                document);
+    }
+
+    /**
+     * The relative link to the document the section of a resource is rendered in, which is empty when that is the
+     * document being rendered, or when the output is not sharded.
+     */
+    public String getDocumentLink(Resource resource) {
+        if (document == null) {
+            return "";
+        }
+        ShardPlan.Document target = documents.get(resource);
+        return target == null ? "" : document.linkTo(target);
+    }
+
+    /**
+     * The markdown link to the section of a resource.
+     */
+    public String getLink(Resource resource) {
+        String documentLink = getDocumentLink(resource);
+        SectionIndex target = documentLink.isEmpty() ? sections : documentSections.get(documents.get(resource));
+        return "[" + sections.getName(resource) + "](" + documentLink + "#" + target.getAnchor(resource) + ")";
+    }
+}
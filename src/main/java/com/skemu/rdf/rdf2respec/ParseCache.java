@@ -0,0 +1,162 @@
+package com.skemu.rdf.rdf2respec;
+
+import com.skemu.rdf.util.ByteBufferInputStream;
+import com.skemu.rdf.util.RdfIoUtil;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.eclipse.rdf4j.model.Model;
+import org.eclipse.rdf4j.rio.RDFFormat;
+import org.eclipse.rdf4j.rio.RDFHandler;
+import org.eclipse.rdf4j.rio.Rio;
+import org.eclipse.rdf4j.rio.helpers.RDFHandlerWrapper;
+
+/**
+ * Directory of parsed input files stored as binary RDF, so unchanged files do not have to be parsed as Turtle again.
+ * Entries are keyed by the content hash of the input file and by the parser settings, and end with a digest of their
+ * own content. Entries that do not match their digest or cannot be read are rebuilt from the input file.
+ */
+@Slf4j
+class ParseCache {
+
+    // bump when the layout of entries changes
+    private static final String FORMAT_VERSION = "1";
+
+    private static final String ENTRY_EXTENSION = ".rdfb";
+
+    private static final int DIGEST_LENGTH = 32;
+
+    private final Path directory;
+
+    private ParseCache(Path directory) {
+        this.directory = directory;
+    }
+
+    static ParseCache disabled() {
+        return new ParseCache(null);
+    }
+
+    static ParseCache of(Path directory) {
+        try {
+            Files.createDirectories(directory);
+        } catch (IOException e) {
+            throw new Rdf2ReSpecException(String.format("Could not create parse cache directory %s", directory), e);
+        }
+        return new ParseCache(directory);
+    }
+
+    /**
+     * Reads an input file into a model.
+     *
+     * @param input the input file
+     * @param settings description of everything that affects the parsed statements, besides the file content
+     * @param collector builds a model from the statements sent to the handler it is given
+     * @param parser parses the input file into the given handler
+     */
+    Model read(Path input, String settings, Function<Consumer<RDFHandler>, Model> collector, Consumer<RDFHandler> parser) {
+        if (directory == null) {
+            return collector.apply(parser);
+        }
+
+        Path entry = directory.resolve(entryName(input, settings));
+        if (Files.exists(entry)) {
+            try {
+                return collector.apply(handler -> load(entry, handler));
+            } catch (RuntimeException e) {
+                log.debug("Rebuilding unreadable parse cache entry {} for {}", entry, input, e);
+            }
+        }
+
+        return collector.apply(handler -> store(entry, handler, parser));
+    }
+
+    private static String entryName(Path input, String settings) {
+        try (InputStream inputStream = Files.newInputStream(input)) {
+            String contentHash = DigestUtils.sha256Hex(inputStream);
+            return DigestUtils.sha256Hex(String.join("\n", FORMAT_VERSION, settings, contentHash)) + ENTRY_EXTENSION;
+        } catch (IOException e) {
+            throw new Rdf2ReSpecException(String.format("Could not hash %s", input), e);
+        }
+    }
+
+    private static void load(Path entry, RDFHandler handler) {
+        try (FileChannel channel = FileChannel.open(entry, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < DIGEST_LENGTH || size > Integer.MAX_VALUE) {
+                throw new CorruptEntryException(String.format("Unexpected size %d", size));
+            }
+
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            int contentLength = (int) size - DIGEST_LENGTH;
+
+            MessageDigest digest = DigestUtils.getSha256Digest();
+            digest.update(buffer.duplicate().limit(contentLength));
+            byte[] expected = new byte[DIGEST_LENGTH];
+            buffer.duplicate().position(contentLength).get(expected);
+            if (!Arrays.equals(digest.digest(), expected)) {
+                throw new CorruptEntryException("Digest mismatch");
+            }
+
+            RdfIoUtil.parse(new ByteBufferInputStream(buffer.limit(contentLength)), RDFFormat.BINARY,
+                    statement -> true, handler);
+        } catch (IOException e) {
+            throw new CorruptEntryException(e.getMessage(), e);
+        }
+    }
+
+    private void store(Path entry, RDFHandler handler, Consumer<RDFHandler> parser) {
+        Path temp = null;
+        try {
+            temp = Files.createTempFile(directory, "entry", ".tmp");
+            try (OutputStream output = new BufferedOutputStream(Files.newOutputStream(temp))) {
+                MessageDigest digest = DigestUtils.getSha256Digest();
+                OutputStream digestOutput = new DigestOutputStream(output, digest);
+                parser.accept(new RDFHandlerWrapper(handler, Rio.createWriter(RDFFormat.BINARY, digestOutput)));
+                digestOutput.flush();
+                output.write(digest.digest());
+            }
+            // several processes can share a cache directory, so entries only ever appear complete
+            Files.move(temp, entry, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            log.warn("Could not store parse cache entry {}", entry, e);
+        } finally {
+            deleteTemp(temp);
+        }
+    }
+
+    private static void deleteTemp(Path temp) {
+        if (temp == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(temp);
+        } catch (IOException e) {
+            log.warn("Could not delete {}", temp, e);
+        }
+    }
+
+    private static class CorruptEntryException extends RuntimeException {
+
+        CorruptEntryException(String message) {
+            super(message);
+        }
+
+        CorruptEntryException(String message, Throwable cause) {
+            super(message, cause);
+        }
+    }
+}
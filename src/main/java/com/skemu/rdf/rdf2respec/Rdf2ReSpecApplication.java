@@ -1,13 +1,14 @@
 package com.skemu.rdf.rdf2respec;
 
-import com.skemu.rdf.rdf2respec.sources.Source;
 import com.skemu.rdf.rdf2respec.sources.Sources;
-import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.Arrays;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
 
 @SpringBootApplication
 @Slf4j
@@ -15,29 +16,42 @@ public class Rdf2ReSpecApplication implements CommandLineRunner {
 
     public static final String SOURCES_YML = "config/sources.yml";
 
+    public static final String WATCH_ARG = "--watch";
+
+    public static final String SERVE_ARG = "--serve";
+
     private final Sources sources;
 
+    private final ModelCache modelCache;
+
     public Rdf2ReSpecApplication() {
         this.sources = getSources();
+        this.modelCache = new ModelCache(sources.getModelCacheSize());
     }
 
     public static void main(String... args) {
-        SpringApplication.run(Rdf2ReSpecApplication.class, args).close();
+        ConfigurableApplicationContext context = SpringApplication.run(Rdf2ReSpecApplication.class, args);
+        if (!Arrays.asList(args).contains(SERVE_ARG)) {
+            context.close();
+        }
+    }
+
+    @Bean
+    public Rdf2ReSpecServer rdf2ReSpecServer() {
+        return Rdf2ReSpecServer.of(sources.getSources(), modelCache, new RenderCache(sources.getRenderCacheSize()));
     }
 
     @Override
     public void run(String... args) {
-        for (Source source: sources.getSources()) {
-            Rdf2ReSpecProcessor.of(source).serializeToFileSystem();
+        if (Arrays.asList(args).contains(SERVE_ARG)) {
+            log.info("Serving ReSpec of {} sources on demand", sources.getSources().size());
+            return;
         }
 
+        Rdf2ReSpecCli.generate(sources, modelCache, Arrays.asList(args).contains(WATCH_ARG));
     }
 
     private Sources getSources() {
-        Path sourcesPath = Paths.get(SOURCES_YML)
-                .toAbsolutePath();
-        Sources loadedSources = YamlConfigReader.parseYamlConfig(sourcesPath, Sources.class)
-                .orElseThrow(() -> new Rdf2ReSpecException("Could not parse source (config/sources.yaml) configuration"));
-        return loadedSources;
+        return Rdf2ReSpecCli.loadSources(Paths.get(SOURCES_YML));
     }
 }
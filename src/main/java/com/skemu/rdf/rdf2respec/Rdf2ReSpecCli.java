@@ -0,0 +1,89 @@
+package com.skemu.rdf.rdf2respec;
+
+import com.skemu.rdf.rdf2respec.sources.Source;
+import com.skemu.rdf.rdf2respec.sources.Sources;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Generates ReSpec for the sources of a configuration file without starting Spring, which keeps one-shot runs on small
+ * inputs fast. Takes the configuration file as argument, {@value Rdf2ReSpecApplication#SOURCES_YML} by default, and
+ * {@value Rdf2ReSpecApplication#WATCH_ARG} to keep watching the sources afterwards. Exits with status 1 on failure.
+ */
+@Slf4j
+public final class Rdf2ReSpecCli {
+
+    private Rdf2ReSpecCli() {}
+
+    public static void main(String... args) {
+        List<String> arguments = Arrays.asList(args);
+        boolean watch = arguments.contains(Rdf2ReSpecApplication.WATCH_ARG);
+        Path config = arguments.stream()
+                .filter(argument -> !argument.startsWith("--"))
+                .findFirst()
+                .map(Paths::get)
+                .orElseGet(() -> Paths.get(Rdf2ReSpecApplication.SOURCES_YML));
+
+        try {
+            Sources sources = loadSources(config);
+            generate(sources, new ModelCache(sources.getModelCacheSize()), watch);
+        } catch (RuntimeException e) {
+            log.error("Failed to generate ReSpec", e);
+            System.exit(1);
+        }
+    }
+
+    static Sources loadSources(Path config) {
+        return YamlConfigReader.parseYamlConfig(config.toAbsolutePath(), Sources.class)
+                .orElseThrow(() -> new Rdf2ReSpecException(String.format("Could not parse source (%s) configuration", config)));
+    }
+
+    /**
+     * Generates ReSpec for all sources, and keeps regenerating changed inputs afterwards when watching.
+     */
+    static void generate(Sources sources, ModelCache modelCache, boolean watch) {
+        int concurrency = Math.max(1, Math.min(sources.getConcurrency(), sources.getSources().size()));
+        ExecutorService executor = Executors.newFixedThreadPool(concurrency);
+        List<String> failed = new ArrayList<>();
+        try {
+            List<Future<?>> tasks = new ArrayList<>();
+            for (Source source : sources.getSources()) {
+                tasks.add(executor.submit(() -> Rdf2ReSpecProcessor.of(source, modelCache).serializeToFileSystem()));
+            }
+
+            for (int i = 0; i < tasks.size(); i++) {
+                String inputLocation = sources.getSources().get(i).getInputLocation();
+                try {
+                    tasks.get(i).get();
+                } catch (ExecutionException e) {
+                    log.error(String.format("Failed to process source %s", inputLocation), e.getCause());
+                    failed.add(inputLocation);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new Rdf2ReSpecException("Interrupted while processing sources", e);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        if (!failed.isEmpty()) {
+            if (!watch) {
+                throw new Rdf2ReSpecException(String.format("Failed to process sources %s", failed));
+            }
+            log.warn("Failed to process sources {}, watching for changes anyway", failed);
+        }
+
+        if (watch) {
+            Rdf2ReSpecWatcher.of(sources.getSources(), modelCache).watch();
+        }
+    }
+}
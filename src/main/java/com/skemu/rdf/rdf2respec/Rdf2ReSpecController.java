@@ -0,0 +1,58 @@
+package com.skemu.rdf.rdf2respec;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Optional;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Serves rendered ReSpec markdown of the configured sources. Responses carry an entity tag, so clients can revalidate
+ * with {@code If-None-Match} and get a {@code 304 Not Modified} as long as the input files did not change.
+ */
+@RestController
+@RequestMapping("/sources")
+public class Rdf2ReSpecController {
+
+    private static final MediaType TEXT_MARKDOWN = new MediaType("text", "markdown", StandardCharsets.UTF_8);
+
+    private final Rdf2ReSpecServer server;
+
+    public Rdf2ReSpecController(Rdf2ReSpecServer server) {
+        this.server = server;
+    }
+
+    @GetMapping("/{source}/files")
+    public List<String> files(@PathVariable int source) {
+        return server.listFiles(source)
+                .orElseThrow(() -> notFound(String.format("Unknown source %d", source)));
+    }
+
+    @GetMapping("/{source}/respec")
+    public ResponseEntity<byte[]> respec(@PathVariable int source, @RequestParam(required = false) String file) {
+        Optional<RenderCache.Rendering> rendering = file == null
+                ? server.render(source)
+                : server.render(source, file);
+
+        return rendering.map(found -> ResponseEntity.ok()
+                .contentType(TEXT_MARKDOWN)
+                .cacheControl(CacheControl.noCache())
+                .eTag(found.getEtag())
+                .body(found.getContent()))
+                .orElseThrow(() -> notFound(file == null
+                        ? String.format("Unknown source %d", source)
+                        : String.format("Unknown file %s of source %d", file, source)));
+    }
+
+    private static ResponseStatusException notFound(String reason) {
+        return new ResponseStatusException(HttpStatus.NOT_FOUND, reason);
+    }
+}
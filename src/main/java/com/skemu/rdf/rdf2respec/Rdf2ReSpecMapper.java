@@ -2,46 +2,50 @@ package com.skemu.rdf.rdf2respec;
 
 import com.skemu.rdf.rdf2respec.respecmapping.ReSpecMapping;
 import com.skemu.rdf.util.ModelUtil;
-import java.util.AbstractMap;
+import com.skemu.rdf.util.RepositoryModel;
+import java.io.IOException;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.stream.Collectors;
 import lombok.AccessLevel;
 import lombok.AllArgsConstructor;
-import net.steppschuh.markdowngenerator.Markdown;
-import net.steppschuh.markdowngenerator.text.heading.Heading;
 import org.apache.commons.lang3.StringUtils;
 import org.eclipse.rdf4j.model.IRI;
 import org.eclipse.rdf4j.model.Model;
 import org.eclipse.rdf4j.model.Resource;
-import org.eclipse.rdf4j.model.Statement;
 import org.eclipse.rdf4j.model.Value;
 import org.eclipse.rdf4j.model.impl.SimpleValueFactory;
 
 @AllArgsConstructor(access = AccessLevel.PRIVATE)
 public class Rdf2ReSpecMapper {
 
-    private static SimpleValueFactory VF = SimpleValueFactory.getInstance();
+    private static final SimpleValueFactory VF = SimpleValueFactory.getInstance();
 
-    private ReSpecMapping reSpecMapping;
+    private static final String NEWLINE = RenderPlan.NEWLINE;
 
-    private IRI sectionTitlePredicate;
+    private final IRI sectionTitlePredicate;
 
-    private Map<IRI, String> attributeMappings;
+    private final Map<IRI, String> attributeMappings;
 
-    private IRI issuePredicate;
+    private final IRI issuePredicate;
 
-    private IRI issueIdPredicate;
+    private final IRI issueIdPredicate;
+
+    private final RenderPlan plan;
 
     public static Rdf2ReSpecMapper from(ReSpecMapping reSpecMapping) {
         IRI sectionTitlePredicate = resolveIriWithPrefixes(reSpecMapping.getPrefixes(), reSpecMapping.getSectionTitlePredicate());
         Map<IRI, String> attributeMappings = prepareAttributeMappings(reSpecMapping);
         IRI issuePredicate = resolveIriWithPrefixes(reSpecMapping.getPrefixes(), reSpecMapping.getIssueMapping().getIssuePredicate());
         IRI issueIdPredicate = resolveIriWithPrefixes(reSpecMapping.getPrefixes(), reSpecMapping.getIssueMapping().getIssueIdPredicate());
-        return new Rdf2ReSpecMapper(reSpecMapping, sectionTitlePredicate, attributeMappings, issuePredicate, issueIdPredicate);
+        return new Rdf2ReSpecMapper(sectionTitlePredicate, attributeMappings, issuePredicate, issueIdPredicate,
+                RenderPlan.compile(reSpecMapping, attributeMappings));
     }
 
     private static IRI resolveIriWithPrefixes(Map<String, String> prefixes, String toResolve) {
@@ -70,96 +74,124 @@ public class Rdf2ReSpecMapper {
                         LinkedHashMap::new));
     }
 
-    public String mapAsSection(Model rdf, Resource resource, int sectionLevel) {
-        StringBuilder out = new StringBuilder();
-
-        processSectionHeading(out, rdf, resource, sectionLevel);
-        processAttributes(out, rdf, resource);
-        processIssues(out, rdf, resource);
+    /**
+     * The predicates read while mapping sections, or empty when all attributes of a resource are mapped.
+     */
+    public Optional<Set<IRI>> getMappedPredicates() {
+        if (attributeMappings.isEmpty()) {
+            return Optional.empty();
+        }
 
-        return out.toString();
+        Set<IRI> predicates = new HashSet<>(attributeMappings.keySet());
+        predicates.add(sectionTitlePredicate);
+        predicates.add(issuePredicate);
+        predicates.add(issueIdPredicate);
+        return Optional.of(predicates);
     }
 
-    private void processSectionHeading(StringBuilder out, Model rdf, Resource resource, int sectionLevel) {
-        String sectionName = rdf.filter(resource, sectionTitlePredicate, null)
-                .objects()
-                .stream()
-                .map(Value::stringValue)
-                .findFirst()
-                .orElseGet(() -> resource instanceof IRI ? ((IRI) resource).getLocalName() : resource.toString());
+    public ModelIndex index(Model rdf) {
+        Set<IRI> indexedPredicates = new HashSet<>(attributeMappings.keySet());
+        indexedPredicates.add(issuePredicate);
+        // a store is asked for the attributes of a resource while it is rendered, rather than holding all of them
+        AttributeIndex attributes = rdf instanceof RepositoryModel
+                ? AttributeIndex.perResource(rdf, indexedPredicates)
+                : AttributeIndex.of(rdf, indexedPredicates);
+        return new ModelIndex(rdf, IssueIndex.of(rdf, issueIdPredicate), SectionIndex.of(rdf, sectionTitlePredicate),
+                attributes);
+    }
 
-        Heading heading = Markdown.heading(sectionName, sectionLevel);
-        heading.setUnderlineStyle(false);
-        out.append(heading);
+    public String mapAsSection(Model rdf, Resource resource, int sectionLevel) {
+        return mapAsSection(index(rdf), resource, sectionLevel);
     }
 
-    private void processAttributes(StringBuilder out, Model rdf, Resource resource) {
-        if (attributeMappings.isEmpty()) {
-            rdf.filter(resource, null, null).predicates()
-                    .forEach(predicate -> processAttribute(out, rdf, resource,
-                            new AbstractMap.SimpleEntry<>(predicate, predicate.getLocalName())));
-        } else {
-            attributeMappings.entrySet()
-                    .forEach(entry -> processAttribute(out, rdf, resource, entry));
+    public String mapAsSection(ModelIndex index, Resource resource, int sectionLevel) {
+        StringBuilder out = new StringBuilder();
+        try {
+            mapAsSection(out, index, resource, sectionLevel);
+        } catch (IOException e) {
+            throw new IllegalStateException("StringBuilder does not throw IOException", e);
         }
+        return out.toString();
     }
 
-    private void processAttribute(StringBuilder out, Model rdf, Resource resource, Map.Entry<IRI, String> attributeMapping) {
-        String value = rdf.filter(resource, attributeMapping.getKey(), null)
-                .objects()
-                .stream()
-                .map(val -> processValueToLinkOrString(rdf, val))
-                .collect(Collectors.joining(String.format(";%n")));
+    public void mapAsSection(Appendable out, ModelIndex index, Resource resource, int sectionLevel) throws IOException {
+        processSectionHeading(out, index, resource, sectionLevel);
+        processAttributes(out, index, resource);
+        processIssues(out, index, resource);
+    }
 
+    /**
+     * Maps a resource that has been mapped as a section elsewhere to a link to that section.
+     */
+    public void mapAsReference(Appendable out, ModelIndex index, Resource resource) throws IOException {
+        out.append("See ").append(index.getLink(resource)).append(NEWLINE);
+    }
 
-        out.append(String.format("%n"))
-                .append(Markdown.bold(attributeMapping.getValue()))
-                .append(": ")
-                .append(Markdown.text(value))
-                .append(String.format("%n"));
+    /**
+     * The title of the section a resource is mapped to.
+     */
+    public String getSectionName(ModelIndex index, Resource resource) {
+        return index.getSections().getName(resource);
     }
 
-    private String processValueToLinkOrString(Model rdf, Value value) {
-        if (value instanceof Resource) {
-            Resource target = (Resource) value;
+    private void processSectionHeading(Appendable out, ModelIndex index, Resource resource, int sectionLevel)
+            throws IOException {
+        out.append(plan.getHeadingPrefix(sectionLevel))
+                .append(getSectionName(index, resource));
+    }
 
-            Optional<String> sectionTitle = rdf.filter(target, sectionTitlePredicate, null)
-                    .objects()
-                    .stream()
-                    .map(Value::stringValue)
-                    .findFirst();
+    private void processAttributes(Appendable out, ModelIndex index, Resource resource) throws IOException {
+        if (attributeMappings.isEmpty()) {
+            for (IRI predicate : index.getModel().filter(resource, null, null).predicates()) {
+                processAttribute(out, index, plan.getAttributePrefix(predicate),
+                        index.getModel().filter(resource, predicate, null).objects());
+            }
+        } else {
+            for (RenderPlan.Attribute attribute : plan.getAttributes()) {
+                processAttribute(out, index, attribute.getPrefix(),
+                        index.getAttributes().get(resource, attribute.getPredicate()));
+            }
+        }
+    }
 
-            if (sectionTitle.isPresent()) {
-                String title = sectionTitle.get();
-                return String.format("[%s](#%s)", title, getSectionAnchor(title));
+    private void processAttribute(Appendable out, ModelIndex index, String prefix, Collection<Value> values)
+            throws IOException {
+        out.append(prefix);
+        boolean first = true;
+        for (Value value : values) {
+            if (!first) {
+                out.append(RenderPlan.VALUE_SEPARATOR);
             }
+            first = false;
+            out.append(processValueToLinkOrString(index, value));
+        }
+        out.append(RenderPlan.ATTRIBUTE_SUFFIX);
+    }
+
+    private String processValueToLinkOrString(ModelIndex index, Value value) {
+        if (value instanceof Resource && index.getSections().hasTitle((Resource) value)) {
+            return index.getLink((Resource) value);
         }
 
         return value.stringValue();
     }
 
-    private void processIssues(StringBuilder out, Model rdf, Resource resource) {
-        Set<Value> issues = rdf.filter(resource, issuePredicate, null)
-                .objects();
+    private void processIssues(Appendable out, ModelIndex index, Resource resource) throws IOException {
+        List<Value> issues = index.getAttributes().get(resource, issuePredicate);
 
-        rdf.stream()
-                .filter(statement -> issues.contains(statement.getSubject()) && issueIdPredicate.equals(statement.getPredicate()))
-                .map(Statement::getObject)
-                .map(Value::stringValue)
-                .forEach(issueId -> processIssue(out, issueId));
-    }
+        if (issues.isEmpty()) {
+            return;
+        }
 
-    private void processIssue(StringBuilder out, String issueId) {
-        String tag = reSpecMapping.getIssueMapping().getIssueHtmlTag();
-        out.append(String.format("%n<%s class=\"issue\" data-number=\"%s\"></%s>%n", tag, issueId, tag));
+        for (String issueId : index.getIssues().getIssueIds(issues)) {
+            processIssue(out, issueId);
+        }
     }
 
-    private static String getSectionAnchor(String sectionName) {
-        // TODO check/improve this naive(?) implementation
-        return sectionName.trim()
-                .toLowerCase()
-                .replaceAll("[(,'\"!@#$%^&*;:)]", "")
-                .replaceAll("\\s", "-");
+    private void processIssue(Appendable out, String issueId) throws IOException {
+        out.append(plan.getIssuePrefix())
+                .append(issueId)
+                .append(plan.getIssueSuffix());
     }
 
 }
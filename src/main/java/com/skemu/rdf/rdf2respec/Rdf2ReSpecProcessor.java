@@ -1,24 +1,48 @@
 package com.skemu.rdf.rdf2respec;
 
+import com.skemu.rdf.rdf2respec.metrics.ProcessorMetrics;
 import com.skemu.rdf.rdf2respec.respec.Paragraph;
-import com.skemu.rdf.rdf2respec.respecmapping.Direction;
 import com.skemu.rdf.rdf2respec.respecmapping.HierarchicalRelation;
 import com.skemu.rdf.rdf2respec.respecmapping.ReSpecMapping;
+import com.skemu.rdf.rdf2respec.sources.InputType;
 import com.skemu.rdf.rdf2respec.sources.Source;
 import com.skemu.rdf.rdf2respec.sources.SourceException;
+import com.skemu.rdf.util.CompactModel;
 import com.skemu.rdf.util.ModelUtil;
 import com.skemu.rdf.util.RdfIoUtil;
+import com.skemu.rdf.util.RepositoryModel;
+import io.micrometer.core.instrument.Timer;
+import java.io.BufferedWriter;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
+import lombok.Getter;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.io.FilenameUtils;
 import org.eclipse.rdf4j.model.IRI;
 import org.eclipse.rdf4j.model.Model;
@@ -27,159 +51,650 @@ import org.eclipse.rdf4j.model.Statement;
 import org.eclipse.rdf4j.model.ValueFactory;
 import org.eclipse.rdf4j.model.impl.LinkedHashModel;
 import org.eclipse.rdf4j.model.impl.SimpleValueFactory;
+import org.eclipse.rdf4j.model.vocabulary.RDF;
+import org.eclipse.rdf4j.repository.Repository;
+import org.eclipse.rdf4j.repository.RepositoryException;
+import org.eclipse.rdf4j.repository.sail.SailRepository;
 import org.eclipse.rdf4j.rio.RDFFormat;
+import org.eclipse.rdf4j.rio.RDFHandler;
+import org.eclipse.rdf4j.rio.helpers.ContextStatementCollector;
+import org.eclipse.rdf4j.sail.Sail;
+import org.eclipse.rdf4j.sail.memory.MemoryStore;
+import org.eclipse.rdf4j.sail.nativerdf.NativeStore;
 
+@Slf4j
 public class Rdf2ReSpecProcessor {
 
     private static final ValueFactory VF = SimpleValueFactory.getInstance();
 
-    private Source source;
+    private static final String NEWLINE = String.format("%n");
 
-    private Rdf2ReSpecMapper mapper;
+    @Getter
+    private final Source source;
 
-    private Rdf2ReSpecProcessor(Source source, Rdf2ReSpecMapper mapper) {
+    private final Rdf2ReSpecMapper mapper;
+
+    private final ModelCache modelCache;
+
+    private final List<IRI> hierarchyPredicates;
+
+    // null when all classes are rendered in typed mappings
+    private final IRI paragraphEntity;
+
+    private final ParseOptions parseOptions;
+
+    private final ParseCache parseCache;
+
+    private final ProcessorMetrics metrics;
+
+    private final InputFiles inputFiles;
+
+    private Rdf2ReSpecProcessor(Source source, Rdf2ReSpecMapper mapper, ModelCache modelCache, List<IRI> hierarchyPredicates,
+            IRI paragraphEntity, ParseOptions parseOptions, ParseCache parseCache, ProcessorMetrics metrics,
+            InputFiles inputFiles) {
         this.source = source;
         this.mapper = mapper;
+        this.modelCache = modelCache;
+        this.hierarchyPredicates = hierarchyPredicates;
+        this.paragraphEntity = paragraphEntity;
+        this.parseOptions = parseOptions;
+        this.parseCache = parseCache;
+        this.metrics = metrics;
+        this.inputFiles = inputFiles;
     }
 
     public static Rdf2ReSpecProcessor of(Source source) {
-        return new Rdf2ReSpecProcessor(source, Rdf2ReSpecMapper.from(source.getReSpecMapping()));
+        return of(source, new ModelCache(0));
+    }
+
+    public static Rdf2ReSpecProcessor of(Source source, ModelCache modelCache) {
+        Rdf2ReSpecMapper mapper = Rdf2ReSpecMapper.from(source.getReSpecMapping());
+        List<IRI> hierarchyPredicates = resolveHierarchyPredicates(source.getReSpecMapping());
+        IRI paragraphEntity = resolveParagraphEntity(source.getReSpecMapping());
+
+        Set<IRI> projection = null;
+        if (source.isProjectedParse()) {
+            projection = mapper.getMappedPredicates()
+                    .map(mappedPredicates -> {
+                        Set<IRI> predicates = new HashSet<>(mappedPredicates);
+                        predicates.addAll(hierarchyPredicates);
+                        if (source.getReSpecMapping().getType() == Paragraph.Type.typed) {
+                            predicates.add(RDF.TYPE);
+                        }
+                        return predicates;
+                    })
+                    .orElse(null);
+        }
+
+        ParseCache parseCache = source.getParseCacheLocation() == null
+                ? ParseCache.disabled()
+                : ParseCache.of(Paths.get(source.getParseCacheLocation()));
+
+        return new Rdf2ReSpecProcessor(source, mapper, modelCache, hierarchyPredicates, paragraphEntity,
+                new ParseOptions(projection, source.isCompactStore()), parseCache, ProcessorMetrics.of(source),
+                InputFiles.of(source));
+    }
+
+    private static List<IRI> resolveHierarchyPredicates(ReSpecMapping mapping) {
+        HierarchicalRelation rel = mapping.getHierarchicalRelation();
+        if (rel == null) {
+            return List.of();
+        }
+
+        return rel.getPredicates()
+                .stream()
+                .map(predicate -> ModelUtil.resolveIri(predicate, mapping.getPrefixes())
+                        .orElseThrow(() -> new Rdf2ReSpecException(String.format(
+                                "Could not resolve hierarchical relation predicate IRIs %s", mapping.getPrefixes()))))
+                .collect(Collectors.toList());
+    }
+
+    private static IRI resolveParagraphEntity(ReSpecMapping mapping) {
+        if (mapping.getParagraphEntity() == null) {
+            return null;
+        }
+
+        return ModelUtil.resolveIri(mapping.getParagraphEntity(), mapping.getPrefixes())
+                .orElseThrow(() -> new Rdf2ReSpecException(String.format(
+                        "Could not resolve paragraph entity IRI %s", mapping.getParagraphEntity())));
     }
 
     public String serialize() {
+        if (isStore()) {
+            return readStore(rdf -> rdf2ReSpecMarkdownString(rdf, null));
+        }
+
         // read everything from location
-        List<Path> input = getPaths(source.getInputLocation(), source.getIgnorePathsWith());
-        Model rdf = input.stream()
-                .flatMap(path -> RdfIoUtil.read(path.toFile(), RDFFormat.TURTLE).stream())
-                .collect(Collectors.toCollection(LinkedHashModel::new));
+        Model rdf;
+        if (parseOptions.isCompact()) {
+            CompactModel.Builder builder = new CompactModel.Builder();
+            readAll(builder::addAll);
+            rdf = builder.build();
+        } else {
+            Model merged = new LinkedHashModel();
+            readAll(merged::addAll);
+            rdf = merged;
+        }
 
-        return rdf2ReSpecMarkdown(rdf);
+        return rdf2ReSpecMarkdownString(rdf, null);
+    }
+
+    /**
+     * Serializes a single input file, as it would be written by {@link #serializeToFileSystem()}.
+     */
+    public String serialize(Path inputPath) {
+        Timer.Sample sample = metrics.startFile();
+        boolean succeeded = false;
+        try {
+            String markdown = rdf2ReSpecMarkdownString(read(inputPath), inputPath);
+            succeeded = true;
+            return markdown;
+        } finally {
+            metrics.stopFile(sample, succeeded);
+        }
+    }
+
+    public List<Path> getInputPaths() {
+        return getPaths(path -> {});
+    }
+
+    /**
+     * The files a rendering of the whole source is made from: the input files, or the files in the data directory of
+     * a store. The lock directory a store creates while it is open is left out.
+     */
+    public List<Path> getRenderedPaths() {
+        if (!isStore()) {
+            return getInputPaths();
+        }
+
+        try (Stream<Path> paths = Files.list(Paths.get(source.getInputLocation()))) {
+            return paths.filter(Files::isRegularFile)
+                    .sorted()
+                    .collect(Collectors.toList());
+        } catch (IOException e) {
+            throw new SourceException(String.format("Cannot resolve location %s", source.getInputLocation()));
+        }
+    }
+
+    public boolean isInputPath(Path path) {
+        return Files.isRegularFile(path) && inputFiles.accepts(path);
     }
 
     public void serializeToFileSystem() {
-        List<Path> input = getPaths(source.getInputLocation(), source.getIgnorePathsWith());
+        if (isStore()) {
+            Path outputPath = resolveOutputPath(Paths.get(source.getInputLocation()));
+            Timer.Sample sample = metrics.startFile();
+            boolean succeeded = false;
+            try {
+                readStore(rdf -> {
+                    rdf2ReSpecMarkdownFile(rdf, outputPath);
+                    return outputPath;
+                });
+                succeeded = true;
+            } finally {
+                metrics.stopFile(sample, succeeded);
+            }
+            return;
+        }
+
+        List<Path> input = getInputPaths();
+        Map<Path, Path> inputByOutput = resolveOutputPaths(input, true);
+        IncrementalBuild incrementalBuild = source.isIncremental()
+                ? IncrementalBuild.start(Paths.get(source.getOutputLocation()), source.getReSpecMapping(), source.getShardDepth())
+                : IncrementalBuild.disabled();
+
+        List<Path> failed = serializeToFiles(inputByOutput, incrementalBuild);
+        incrementalBuild.finish(inputByOutput.keySet());
+
+        if (!failed.isEmpty()) {
+            throw new Rdf2ReSpecException(String.format("Failed to generate ReSpec for %d of %d files: %s", failed.size(),
+                    inputByOutput.size(), failed));
+        }
+    }
+
+    /**
+     * Regenerates the output for the given input paths only. Paths that are not an input of this source are ignored.
+     * The output of an input that no longer exists is rendered again from the input it now belongs to, and only removed
+     * when there is none.
+     */
+    public void serializeToFileSystem(Collection<Path> changedPaths) {
+        // stores are read in place, their files are not inputs
+        if (isStore()) {
+            return;
+        }
+
+        // outputs are named after the file name of their input only, so other inputs can share an output
+        Map<Path, Path> ownerByOutput = resolveOutputPaths(getInputPaths(), false);
+        IncrementalBuild incrementalBuild = source.isIncremental()
+                ? IncrementalBuild.resume(Paths.get(source.getOutputLocation()), source.getReSpecMapping(), source.getShardDepth())
+                : IncrementalBuild.disabled();
+
+        Map<Path, Path> inputByOutput = new LinkedHashMap<>();
+        for (Path path : changedPaths) {
+            if (!inputFiles.accepts(path)) {
+                continue;
+            }
+
+            boolean removed = !Files.isRegularFile(path);
+            if (removed) {
+                incrementalBuild.removed(path);
+            }
+
+            Path outputPath = resolveOutputPath(path);
+            Path owner = ownerByOutput.get(outputPath);
+            if (owner == null) {
+                deleteOutput(outputPath);
+            } else if (removed || isSamePath(owner, path)) {
+                inputByOutput.put(outputPath, owner);
+            }
+        }
+
+        List<Path> failed = serializeToFiles(inputByOutput, incrementalBuild);
+        incrementalBuild.save();
+
+        if (!failed.isEmpty()) {
+            throw new Rdf2ReSpecException(String.format("Failed to generate ReSpec for %d of %d files: %s", failed.size(),
+                    inputByOutput.size(), failed));
+        }
+    }
+
+    private List<Path> serializeToFiles(Map<Path, Path> inputByOutput, IncrementalBuild incrementalBuild) {
+        int concurrency = Math.max(1, Math.min(source.getConcurrency(), inputByOutput.size()));
+        ExecutorService executor = Executors.newFixedThreadPool(concurrency);
+        List<Path> failed = new ArrayList<>();
+        try {
+            Map<Path, Future<?>> tasks = new LinkedHashMap<>();
+            inputByOutput.forEach((outputPath, inputPath) ->
+                    tasks.put(inputPath, executor.submit(() -> serializeToFile(inputPath, outputPath, incrementalBuild))));
+
+            // wait in input order, so failures are reported the same way regardless of scheduling
+            for (Map.Entry<Path, Future<?>> task : tasks.entrySet()) {
+                try {
+                    task.getValue().get();
+                } catch (ExecutionException e) {
+                    log.error(String.format("Failed to generate ReSpec for %s", task.getKey()), e.getCause());
+                    failed.add(task.getKey());
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new Rdf2ReSpecException(String.format("Interrupted while generating ReSpec for %s", source.getInputLocation()), e);
+        } finally {
+            executor.shutdownNow();
+        }
+        return failed;
+    }
+
+    /**
+     * Parses the input files concurrently and hands the models to the consumer in input order, so the merged model is
+     * the same regardless of scheduling. Files are parsed as soon as they are found, and merging happens on the calling
+     * thread while later files are still parsed.
+     */
+    private void readAll(Consumer<Model> merge) {
+        if (source.getConcurrency() <= 1) {
+            getPaths(path -> {}).forEach(path -> merge.accept(read(path)));
+            return;
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(source.getConcurrency());
+        try {
+            Map<Path, Future<Model>> models = new ConcurrentHashMap<>();
+            List<Path> input = getPaths(path -> models.put(path, executor.submit(() -> read(path))));
+
+            for (Path path : input) {
+                merge.accept(models.get(path).get());
+            }
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new Rdf2ReSpecException(String.format("Could not read %s", source.getInputLocation()), e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new Rdf2ReSpecException(String.format("Interrupted while reading %s", source.getInputLocation()), e);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private Map<Path, Path> resolveOutputPaths(List<Path> input, boolean reportOverwrites) {
+        Map<Path, Path> inputByOutput = new LinkedHashMap<>();
         for (Path path : input) {
-            Model rdf = RdfIoUtil.read(path.toFile(), RDFFormat.TURTLE);
-            String fileNameWithoutExt = FilenameUtils.removeExtension(path.getFileName().toString());
-            Path outputPath = Paths.get(source.getOutputLocation()).resolve(Paths.get(String.format("%s.md", fileNameWithoutExt)));
+            Path outputPath = resolveOutputPath(path);
 
-            rdf2ReSpecMarkdownFile(rdf, outputPath);
+            // the last input for an output path wins, as it would when writing the files one after another
+            Path overwritten = inputByOutput.put(outputPath, path);
+            if (overwritten != null && reportOverwrites) {
+                log.warn("Output {} for {} is overwritten by output for {}", outputPath, overwritten, path);
+            }
         }
+        return inputByOutput;
     }
 
-    // TODO: make file extension filter configurable in source
-    private List<Path> getPaths(String location, List<String> ignores) {
-        try (Stream<Path> pathStream = Files.walk(Paths.get(location))) {
-            return pathStream.filter(Files::isRegularFile)
-                    .filter(filePath -> ignores.stream().noneMatch(ignore -> filePath.toString().contains(ignore)))
-                    .filter(filePath -> filePath.toString().endsWith(".ttl"))
-                    .collect(Collectors.toList());
+    private static boolean isSamePath(Path path, Path other) {
+        return path.toAbsolutePath().normalize().equals(other.toAbsolutePath().normalize());
+    }
+
+    private Path resolveOutputPath(Path inputPath) {
+        String fileNameWithoutExt = FilenameUtils.removeExtension(inputPath.getFileName().toString());
+        return Paths.get(source.getOutputLocation()).resolve(Paths.get(String.format("%s.md", fileNameWithoutExt)));
+    }
+
+    private void deleteOutput(Path outputPath) {
+        try {
+            Files.deleteIfExists(outputPath);
+            if (source.getShardDepth() > 0) {
+                ShardPlan.deleteShards(outputPath);
+            }
         } catch (IOException e) {
-            throw new SourceException(String.format("Cannot resolve location %s", location));
+            throw new Rdf2ReSpecException(String.format("Could not delete %s", outputPath), e);
         }
     }
 
-    private void rdf2ReSpecMarkdownFile(Model rdf, Path path) {
+    private void serializeToFile(Path inputPath, Path outputPath, IncrementalBuild incrementalBuild) {
+        if (!incrementalBuild.isUpToDate(inputPath, outputPath)) {
+            Timer.Sample sample = metrics.startFile();
+            boolean succeeded = false;
+            try {
+                Model rdf = read(inputPath);
+                rdf2ReSpecMarkdownFile(rdf, outputPath);
+                succeeded = true;
+            } finally {
+                metrics.stopFile(sample, succeeded);
+            }
+        }
+        incrementalBuild.completed(inputPath);
+    }
+
+    private Model read(Path path) {
+        return modelCache.get(path, parseOptions, this::parse);
+    }
+
+    private Model parse(Path path) {
+        Set<IRI> projection = parseOptions.getProjection();
+        Predicate<Statement> filter = projection == null
+                ? statement -> true
+                : statement -> projection.contains(statement.getPredicate());
+
+        ProcessorMetrics.Measurement measurement = metrics.startParse(path);
+        RDFFormat format = RdfIoUtil.detectFormat(path);
+        Model model = parseCache.read(path, parseOptions.getSettings(format), this::collect,
+                handler -> RdfIoUtil.parse(path.toFile(), format, filter, handler));
+        measurement.end(model.size());
+        return model;
+    }
+
+    private Model collect(Consumer<RDFHandler> parser) {
+        if (parseOptions.isCompact()) {
+            CompactModel.Builder builder = new CompactModel.Builder();
+            parser.accept(builder);
+            return builder.build();
+        }
+
+        Model model = new LinkedHashModel();
+        parser.accept(new ContextStatementCollector(model, VF));
+        return model;
+    }
+
+    private List<Path> getPaths(Consumer<Path> found) {
+        if (isStore()) {
+            return List.of();
+        }
+
         try {
-            Files.writeString(path, rdf2ReSpecMarkdown(rdf));
+            return inputFiles.walk(found);
         } catch (IOException e) {
-            e.printStackTrace();
+            throw new SourceException(String.format("Cannot resolve location %s", source.getInputLocation()));
         }
     }
 
-    private String rdf2ReSpecMarkdown(Model rdf) {
-        ReSpecMapping mapping = source.getReSpecMapping();
-        // get all paragraphs
+    private boolean isStore() {
+        return source.getInputType() != InputType.files;
+    }
 
-        if (mapping.getType() != Paragraph.Type.hierarchical) {
-            throw new IllegalStateException("Only hierarchical mapping supported.");
+    /**
+     * Renders from the store in the input location, which is open for the duration of the call. Statements are read
+     * from the indexes of the store while rendering, instead of being loaded into memory first.
+     */
+    private <T> T readStore(Function<Model, T> render) {
+        Path dataDir = Paths.get(source.getInputLocation());
+        if (!Files.isDirectory(dataDir)) {
+            throw new SourceException(String.format("Cannot resolve location %s", source.getInputLocation()));
         }
 
-        HierarchicalRelation rel = mapping.getHierarchicalRelation();
+        Sail store = source.getInputType() == InputType.nativeStore
+                ? new NativeStore(dataDir.toFile())
+                : new MemoryStore(dataDir.toFile());
+        Repository repository = new SailRepository(store);
+        try {
+            repository.init();
+        } catch (RepositoryException e) {
+            throw new SourceException(String.format("Cannot open %s in %s", source.getInputType(), dataDir), e);
+        }
 
-        List<IRI> hierarchyPredicates = rel.getPredicates()
-                .stream()
-                .map(predicate -> ModelUtil.resolveIri(predicate, mapping.getPrefixes())
-                        .orElseThrow(() -> new Rdf2ReSpecException(String.format(
-                                "Could not resolve hierarchical relation predicate IRIs %s", mapping.getPrefixes()))))
-                .collect(Collectors.toList());
+        try {
+            return render.apply(RepositoryModel.of(repository));
+        } finally {
+            repository.shutDown();
+        }
+    }
 
-        List<Node> nodes = new ArrayList<>();
-        if (rel.getDirection() == Direction.upward) {
-            nodes = buildTreeWithUpwardRelations(rdf, hierarchyPredicates);
-        } else {
-            throw new RuntimeException("TODO: support downward hierarchical relations");
+    private String rdf2ReSpecMarkdownString(Model rdf, Path path) {
+        StringBuilder out = new StringBuilder();
+        try {
+            rdf2ReSpecMarkdown(out, rdf, path);
+        } catch (IOException e) {
+            throw new IllegalStateException("StringBuilder does not throw IOException", e);
         }
-        return generateReSpecMarkdown(rdf, nodes, 1).stream().collect(Collectors.joining(String.format("%n")));
+        return out.toString();
     }
 
-    private static List<Node> buildTreeWithUpwardRelations(Model model, List<IRI> hierarchyPredicates) {
-        Map<Resource, Node> lookup = new LinkedHashMap<>();
+    private void rdf2ReSpecMarkdownFile(Model rdf, Path path) {
+        ReSpecMapping mapping = source.getReSpecMapping();
+        if (source.getShardDepth() > 0 && mapping.getType() == Paragraph.Type.hierarchical) {
+            rdf2ReSpecShards(rdf, path, mapping.getHierarchicalRelation());
+            return;
+        }
 
-        Set<Resource> subjects = model.stream()
-                .filter(statement -> hierarchyPredicates.contains(statement.getPredicate()))
-                .map(Statement::getSubject)
-                .collect(Collectors.toSet());
+        try (AtomicOutputFile file = AtomicOutputFile.of(path)) {
+            try (Writer writer = openWriter(file)) {
+                rdf2ReSpecMarkdown(writer, rdf, path);
+            }
+            file.commit();
+        } catch (IOException e) {
+            throw new Rdf2ReSpecException(String.format("Could not write ReSpec to %s", path), e);
+        }
+    }
 
-        for (Resource subject : subjects) {
+    private Writer openWriter(AtomicOutputFile file) throws IOException {
+        OutputStream output = Files.newOutputStream(file.getTemp(), StandardOpenOption.CREATE_NEW,
+                StandardOpenOption.WRITE);
+        return new BufferedWriter(new OutputStreamWriter(
+                metrics.meterWrites(output, file.getPath()), StandardCharsets.UTF_8.newEncoder()));
+    }
 
-            // complete possible earlier references
-            Node thiz;
-            if (lookup.containsKey(subject)) {
-                thiz = lookup.get(subject);
-            } else {
-                thiz = new Node(subject);
-                lookup.put(subject, thiz);
-            }
+    /**
+     * Renders the model as markdown, where the path is only used to tell measurements apart and may be null.
+     */
+    private void rdf2ReSpecMarkdown(Appendable out, Model rdf, Path path) throws IOException {
+        ReSpecMapping mapping = source.getReSpecMapping();
+        // get all paragraphs
 
-            // link into parents
-            List<Resource> parents = model.stream()
-                    .filter(statement -> statement.getSubject().equals(subject) && hierarchyPredicates.contains(statement.getPredicate()))
-                    .map(Statement::getObject)
-                    .filter(Resource.class::isInstance)
-                    .map(Resource.class::cast)
-                    .collect(Collectors.toList());
+        switch (mapping.getType()) {
+            case hierarchical:
+                rdf2ReSpecHierarchy(out, rdf, path, mapping.getHierarchicalRelation());
+                break;
+            case typed:
+                rdf2ReSpecTyped(out, rdf, path);
+                break;
+            default:
+                throw new IllegalStateException(String.format("Unsupported mapping type %s", mapping.getType()));
+        }
+    }
 
-            for(Resource parent: parents) {
-                Node parentNode;
-                if (!lookup.containsKey(parent)) {
-                    parentNode = new Node(parent);
-                    lookup.put(parent, parentNode);
-                } else {
-                    parentNode = lookup.get(parent);
-                }
-                parentNode.addChild(thiz);
-                thiz.addParent(parentNode);
+    private void rdf2ReSpecHierarchy(Appendable out, Model rdf, Path path, HierarchicalRelation rel) throws IOException {
+
+        ProcessorMetrics.Measurement treeBuild = metrics.startTreeBuild(path);
+        List<Node> nodes = HierarchyIndex.of(rdf, hierarchyPredicates)
+                .buildNodes(rel.getDirection());
+        treeBuild.end(nodes.size());
+
+        ProcessorMetrics.Measurement render = metrics.startRender(path);
+        List<Node> roots = getRoots(nodes);
+        ModelIndex index = mapper.index(rdf)
+                .withHeadings(SectionRenderer.headings(roots, rel.getSharedSubtrees(), 0));
+        SectionRenderer renderer = new SectionRenderer(mapper, index, rel.getSharedSubtrees(), out);
+        HierarchyTraversal traversal = new HierarchyTraversal(rel.getCyclePolicy());
+
+        renderRoots(out, roots, traversal, renderer);
+        traversal.checkReached(nodes);
+        render.end(renderer.getRenderedSections());
+        logRepeatedSubtrees(List.of(renderer));
+    }
+
+    private void renderRoots(Appendable out, List<Node> roots, HierarchyTraversal traversal, SectionRenderer renderer)
+            throws IOException {
+        boolean first = true;
+        for (Node root : roots) {
+            if (!first) {
+                out.append(NEWLINE);
             }
+            first = false;
+            traversal.traverse(root, 1, renderer);
         }
+    }
 
-        return lookup.values().stream()
-                .collect(Collectors.toList());
+    private void logRepeatedSubtrees(List<SectionRenderer> renderers) {
+        int repeatedSubtrees = renderers.stream().mapToInt(SectionRenderer::getRepeatedSubtrees).sum();
+        if (repeatedSubtrees > 0) {
+            log.info("Avoided rendering {} sections again in {} repeated shared subtrees of {}",
+                    renderers.stream().mapToLong(SectionRenderer::getAvoidedSections).sum(), repeatedSubtrees,
+                    source.getInputLocation());
+        }
     }
 
-    private List<String> serializeAsTree(List<Node> nodes) {
-        return  getRoots(nodes).stream()
-                .map(node -> serializeNodeAsTree(node, "\n"))
-                .collect(Collectors.toList());
+    /**
+     * Writes the sections down to the shard depth to the index at the path, and every section at the shard depth with
+     * everything below it to a shard of its own. Shards are rendered and written concurrently with the index.
+     */
+    private void rdf2ReSpecShards(Model rdf, Path path, HierarchicalRelation rel) {
+        ProcessorMetrics.Measurement treeBuild = metrics.startTreeBuild(path);
+        List<Node> nodes = HierarchyIndex.of(rdf, hierarchyPredicates)
+                .buildNodes(rel.getDirection());
+        treeBuild.end(nodes.size());
+
+        ProcessorMetrics.Measurement render = metrics.startRender(path);
+        ModelIndex index = mapper.index(rdf);
+        List<Node> roots = getRoots(nodes);
+        ShardPlan plan = ShardPlan.of(path, roots, source.getShardDepth(), index.getSections()::getAnchor);
+
+        // every document numbers its own anchors, and links between documents use the anchors of the target
+        Map<ShardPlan.Document, SectionIndex> documentSections = new HashMap<>();
+        documentSections.put(plan.getIndex(), index.getSections()
+                .inDocumentOrder(SectionRenderer.headings(roots, rel.getSharedSubtrees(), source.getShardDepth())));
+        for (ShardPlan.Shard shard : plan.getShards()) {
+            documentSections.put(shard.getDocument(), index.getSections()
+                    .inDocumentOrder(SectionRenderer.headings(List.of(shard.getRoot()), rel.getSharedSubtrees(), 0)));
+        }
+
+        int concurrency = Math.max(1, Math.min(source.getConcurrency(), plan.getShards().size()));
+        ExecutorService executor = Executors.newFixedThreadPool(concurrency);
+        try (AtomicOutputFile indexFile = AtomicOutputFile.of(path)) {
+            if (!plan.getShards().isEmpty()) {
+                plan.recordShards();
+            }
+
+            List<Future<ShardResult>> shards = new ArrayList<>();
+            for (ShardPlan.Shard shard : plan.getShards()) {
+                shards.add(executor.submit(() -> rdf2ReSpecShard(
+                        index.inDocument(plan.getDocuments(), documentSections, shard.getDocument()), shard, rel)));
+            }
+
+            HierarchyTraversal traversal = new HierarchyTraversal(rel.getCyclePolicy());
+            SectionRenderer renderer;
+            try (Writer writer = openWriter(indexFile)) {
+                renderer = new SectionRenderer(mapper, index.inDocument(plan.getDocuments(), documentSections,
+                        plan.getIndex()),
+                        rel.getSharedSubtrees(), writer, source.getShardDepth());
+                renderRoots(writer, roots, traversal, renderer);
+            }
+
+            List<SectionRenderer> renderers = new ArrayList<>();
+            renderers.add(renderer);
+            for (Future<ShardResult> shard : shards) {
+                ShardResult result = shard.get();
+                traversal.addReached(result.getTraversal());
+                renderers.add(result.getRenderer());
+            }
+            // the index only links to the new shards once they are all written
+            indexFile.commit();
+            plan.deleteStaleShards();
+
+            traversal.checkReached(nodes);
+            render.end(renderers.stream().mapToLong(SectionRenderer::getRenderedSections).sum());
+            logRepeatedSubtrees(renderers);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new Rdf2ReSpecException(String.format("Could not write ReSpec shards of %s", path), e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new Rdf2ReSpecException(String.format("Interrupted while writing ReSpec shards of %s", path), e);
+        } catch (IOException e) {
+            throw new Rdf2ReSpecException(String.format("Could not write ReSpec to %s", path), e);
+        } finally {
+            executor.shutdownNow();
+        }
     }
 
-    private String serializeNodeAsTree(Node node, String delimiter) {
-        String newDelimiter = calculateNewDelimiter(delimiter);
-        String children = node.getChildren().stream()
-                .map(child -> serializeNodeAsTree(child, newDelimiter))
-                .collect(Collectors.joining(""));
-        return String.format("%s%s%s", node.getSource(), newDelimiter, children);
+    private ShardResult rdf2ReSpecShard(ModelIndex index, ShardPlan.Shard shard, HierarchicalRelation rel) {
+        HierarchyTraversal traversal = new HierarchyTraversal(rel.getCyclePolicy());
+        try (AtomicOutputFile file = AtomicOutputFile.of(shard.getPath())) {
+            SectionRenderer renderer;
+            try (Writer writer = openWriter(file)) {
+                renderer = new SectionRenderer(mapper, index, rel.getSharedSubtrees(), writer);
+                traversal.traverse(shard.getRoot(), 1, renderer);
+            }
+            file.commit();
+            return new ShardResult(renderer, traversal);
+        } catch (IOException e) {
+            throw new Rdf2ReSpecException(String.format("Could not write ReSpec to %s", shard.getPath()), e);
+        }
     }
 
-    private String calculateNewDelimiter(String delimiter) {
-        int spaces = delimiter.substring(delimiter.lastIndexOf("\n")).length();
-        StringBuilder stringBuilder = new StringBuilder();
-        stringBuilder.append(delimiter);
-        stringBuilder.append("\n");
-        for (int i = 0; i < spaces + 2; i++){
-            stringBuilder.append(" ");
+    /**
+     * Renders a section per class, with the sections of its instances below it. Resources of several classes are
+     * rendered below each of them.
+     */
+    private void rdf2ReSpecTyped(Appendable out, Model rdf, Path path) throws IOException {
+        ProcessorMetrics.Measurement treeBuild = metrics.startTreeBuild(path);
+        ModelIndex titles = mapper.index(rdf);
+        TypeIndex types = TypeIndex.of(rdf, paragraphEntity, resource -> mapper.getSectionName(titles, resource));
+        treeBuild.end(types.getClasses().size() + types.getInstanceCount());
+
+        ProcessorMetrics.Measurement render = metrics.startRender(path);
+        ModelIndex index = titles.withHeadings(types.getHeadings());
+        boolean firstClass = true;
+        for (Resource clazz : types.getClasses()) {
+            if (!firstClass) {
+                out.append(NEWLINE);
+            }
+            firstClass = false;
+            mapper.mapAsSection(out, index, clazz, 1);
+            out.append(NEWLINE);
+
+            boolean firstInstance = true;
+            for (Resource instance : types.getInstances(clazz)) {
+                if (!firstInstance) {
+                    out.append(NEWLINE);
+                }
+                firstInstance = false;
+                mapper.mapAsSection(out, index, instance, 2);
+                out.append(NEWLINE);
+            }
         }
-        return stringBuilder.toString();
+        render.end(types.getClasses().size() + types.getInstanceCount());
     }
 
     private List<Node> getRoots(List<Node> nodes) {
@@ -188,17 +703,33 @@ public class Rdf2ReSpecProcessor {
                 .collect(Collectors.toList());
     }
 
-    private List<String> generateReSpecMarkdown(Model rdf, List<Node> nodes, int startDepth) {
-        return getRoots(nodes).stream()
-                .map(node -> generateReSpecMarkdown(rdf, node, startDepth))
-                .collect(Collectors.toList());
-    }
+    @Value
+    private static class ShardResult {
+
+        SectionRenderer renderer;
 
-    private String generateReSpecMarkdown(Model rdf, Node node, int depth) {
-        String children = node.getChildren().stream()
-                .map(child -> generateReSpecMarkdown(rdf, child, depth + 1 ))
-                .collect(Collectors.joining(String.format("%n")));
-        return String.format("%s%n%s", mapper.mapAsSection(rdf, node.getSource(), depth), children);
+        HierarchyTraversal traversal;
     }
 
+    /**
+     * How input files are parsed, which is also part of the key of parsed models in the model cache.
+     */
+    @Value
+    private static class ParseOptions {
+
+        // null when all statements are kept
+        Set<IRI> projection;
+
+        boolean compact;
+
+        /**
+         * Describes everything that affects which statements are parsed from a file, for the parse cache.
+         */
+        String getSettings(RDFFormat format) {
+            String projected = projection == null
+                    ? "*"
+                    : projection.stream().map(IRI::stringValue).sorted().collect(Collectors.joining(" "));
+            return String.format("format=%s;preserveBNodeIds=true;projection=%s", format.getName(), projected);
+        }
+    }
 }
@@ -0,0 +1,94 @@
+package com.skemu.rdf.rdf2respec;
+
+import com.skemu.rdf.rdf2respec.sources.Source;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import lombok.Value;
+import org.apache.commons.io.FilenameUtils;
+
+/**
+ * Renders the ReSpec of sources on demand. Parsed models are shared through the model cache, and rendered ReSpec is
+ * kept in the render cache until one of the input files it was rendered from changes, or one of the files in the data
+ * directory of a store. Sources are identified by their position in the configuration, files by their path relative to
+ * the input location of their source.
+ */
+public class Rdf2ReSpecServer {
+
+    private final List<Rdf2ReSpecProcessor> processors;
+
+    private final RenderCache renderCache;
+
+    private Rdf2ReSpecServer(List<Rdf2ReSpecProcessor> processors, RenderCache renderCache) {
+        this.processors = processors;
+        this.renderCache = renderCache;
+    }
+
+    public static Rdf2ReSpecServer of(List<Source> sources, ModelCache modelCache, RenderCache renderCache) {
+        return new Rdf2ReSpecServer(sources.stream()
+                .map(source -> Rdf2ReSpecProcessor.of(source, modelCache))
+                .collect(Collectors.toList()), renderCache);
+    }
+
+    public Optional<List<String>> listFiles(int source) {
+        return getProcessor(source).map(processor -> {
+            Path location = getInputLocation(processor);
+            return processor.getInputPaths()
+                    .stream()
+                    .map(path -> FilenameUtils.separatorsToUnix(location.relativize(path.toAbsolutePath().normalize()).toString()))
+                    .collect(Collectors.toList());
+        });
+    }
+
+    /**
+     * Renders all input files of a source merged, as {@link Rdf2ReSpecProcessor#serialize()} does.
+     */
+    public Optional<RenderCache.Rendering> render(int source) {
+        return getProcessor(source).map(processor ->
+                renderCache.get(new Target(source, null), processor.getRenderedPaths(), processor::serialize));
+    }
+
+    /**
+     * Renders a single input file of a source. Files outside the input location of the source, and files that are not
+     * an input of the source, are not found.
+     */
+    public Optional<RenderCache.Rendering> render(int source, String file) {
+        return getProcessor(source).flatMap(processor -> {
+            Path location = getInputLocation(processor);
+            Path path = location.resolve(file).normalize();
+            if (!path.startsWith(location)) {
+                return Optional.empty();
+            }
+
+            // the same form of the path the input location is walked with, so ignored paths match the same way
+            Path inputPath = Paths.get(processor.getSource().getInputLocation()).resolve(location.relativize(path));
+            if (!processor.isInputPath(inputPath)) {
+                return Optional.empty();
+            }
+
+            return Optional.of(renderCache.get(new Target(source, path), List.of(inputPath),
+                    () -> processor.serialize(inputPath)));
+        });
+    }
+
+    private Optional<Rdf2ReSpecProcessor> getProcessor(int source) {
+        return source >= 0 && source < processors.size()
+                ? Optional.of(processors.get(source))
+                : Optional.empty();
+    }
+
+    private static Path getInputLocation(Rdf2ReSpecProcessor processor) {
+        return Paths.get(processor.getSource().getInputLocation()).toAbsolutePath().normalize();
+    }
+
+    @Value
+    private static class Target {
+
+        int source;
+
+        // null for all input files of the source merged
+        Path file;
+    }
+}
@@ -0,0 +1,159 @@
+package com.skemu.rdf.rdf2respec;
+
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_DELETE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+import static java.nio.file.StandardWatchEventKinds.OVERFLOW;
+
+import com.skemu.rdf.rdf2respec.sources.Source;
+import com.skemu.rdf.rdf2respec.sources.SourceException;
+import java.io.IOException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Watches the input locations of a set of sources, and regenerates the outputs of changed input files. Processors,
+ * and with them the mappers and the model cache, stay alive between changes.
+ */
+@Slf4j
+public class Rdf2ReSpecWatcher {
+
+    private static final long DEBOUNCE_MILLIS = 50;
+
+    private final List<Rdf2ReSpecProcessor> processors;
+
+    private final Map<WatchKey, Path> directories = new HashMap<>();
+
+    private Rdf2ReSpecWatcher(List<Rdf2ReSpecProcessor> processors) {
+        this.processors = processors;
+    }
+
+    public static Rdf2ReSpecWatcher of(List<Source> sources, ModelCache modelCache) {
+        return new Rdf2ReSpecWatcher(sources.stream()
+                .map(source -> Rdf2ReSpecProcessor.of(source, modelCache))
+                .collect(Collectors.toList()));
+    }
+
+    /**
+     * Blocks and regenerates outputs on changes until the calling thread is interrupted.
+     */
+    public void watch() {
+        try (WatchService watchService = FileSystems.getDefault().newWatchService()) {
+            Set<Path> locations = new LinkedHashSet<>();
+            processors.forEach(processor -> locations.add(getInputLocation(processor)));
+            for (Path location : locations) {
+                register(watchService, location);
+            }
+            log.info("Watching {} for changes", locations);
+
+            while (!Thread.currentThread().isInterrupted()) {
+                WatchKey key = watchService.take();
+                Set<Path> changed = new LinkedHashSet<>();
+                boolean overflow = false;
+
+                // an editor save usually fires several events, collect them until things are quiet
+                while (key != null) {
+                    overflow |= collectChanges(watchService, key, changed);
+                    key = watchService.poll(DEBOUNCE_MILLIS, TimeUnit.MILLISECONDS);
+                }
+
+                regenerate(changed, overflow);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            throw new Rdf2ReSpecException("Could not watch input locations", e);
+        }
+    }
+
+    private boolean collectChanges(WatchService watchService, WatchKey key, Set<Path> changed) {
+        Path directory = directories.get(key);
+        boolean overflow = false;
+
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == OVERFLOW) {
+                overflow = true;
+                continue;
+            }
+
+            Path path = directory.resolve((Path) event.context());
+            if (event.kind() == ENTRY_CREATE && Files.isDirectory(path)) {
+                try {
+                    register(watchService, path);
+                    changed.addAll(listFiles(path));
+                } catch (SourceException e) {
+                    log.warn("Could not watch new directory {}", path, e);
+                }
+            } else {
+                changed.add(path);
+            }
+        }
+
+        if (!key.reset()) {
+            directories.remove(key);
+        }
+        return overflow;
+    }
+
+    private void regenerate(Set<Path> changed, boolean overflow) {
+        long start = System.nanoTime();
+
+        for (Rdf2ReSpecProcessor processor : processors) {
+            Path location = getInputLocation(processor);
+            try {
+                if (overflow) {
+                    processor.serializeToFileSystem();
+                } else {
+                    List<Path> changedInLocation = changed.stream()
+                            .filter(path -> path.startsWith(location))
+                            .collect(Collectors.toList());
+                    if (!changedInLocation.isEmpty()) {
+                        processor.serializeToFileSystem(changedInLocation);
+                    }
+                }
+            } catch (RuntimeException e) {
+                log.error(String.format("Failed to regenerate ReSpec for %s", location), e);
+            }
+        }
+
+        log.info("Regenerated {} changed paths in {} ms", overflow ? "all" : changed.size(),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+
+    private static Path getInputLocation(Rdf2ReSpecProcessor processor) {
+        return Paths.get(processor.getSource().getInputLocation());
+    }
+
+    private void register(WatchService watchService, Path location) {
+        try (Stream<Path> pathStream = Files.walk(location)) {
+            for (Path directory : pathStream.filter(Files::isDirectory).collect(Collectors.toList())) {
+                directories.put(directory.register(watchService, ENTRY_CREATE, ENTRY_MODIFY, ENTRY_DELETE), directory);
+            }
+        } catch (IOException e) {
+            throw new SourceException(String.format("Cannot watch location %s", location), e);
+        }
+    }
+
+    private static List<Path> listFiles(Path directory) {
+        try (Stream<Path> pathStream = Files.walk(directory)) {
+            return pathStream.filter(Files::isRegularFile)
+                    .collect(Collectors.toList());
+        } catch (IOException e) {
+            throw new SourceException(String.format("Cannot resolve location %s", directory), e);
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package com.skemu.rdf.rdf2respec;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
+import lombok.Value;
+import org.apache.commons.codec.digest.DigestUtils;
+
+/**
+ * Cache of rendered ReSpec, keyed by what was rendered and by the state of the input files it was rendered from, so
+ * a change to any of the input files makes the entry stale. The cache is bounded by the total number of bytes it holds
+ * and evicts the least recently used renderings first. Concurrent requests for the same rendering wait for a single
+ * render.
+ */
+public class RenderCache {
+
+    private final long maxBytes;
+
+    private final Map<Key, CompletableFuture<Rendering>> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    private final Map<Key, Integer> sizes = new HashMap<>();
+
+    private long cachedBytes;
+
+    public RenderCache(long maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Gets the rendering named by the given name, rendering it again when one of the inputs changed since it was
+     * cached.
+     */
+    public Rendering get(Object name, List<Path> inputs, Supplier<String> renderer) {
+        Key key = Key.of(name, inputs);
+
+        CompletableFuture<Rendering> entry;
+        boolean render = false;
+        synchronized (this) {
+            entry = entries.get(key);
+            if (entry == null) {
+                entry = new CompletableFuture<>();
+                entries.put(key, entry);
+                render = true;
+            }
+        }
+
+        if (render) {
+            try {
+                Rendering rendering = Rendering.of(renderer.get());
+                entry.complete(rendering);
+                rendered(key, rendering.getContent().length);
+            } catch (RuntimeException e) {
+                synchronized (this) {
+                    entries.remove(key);
+                }
+                entry.completeExceptionally(e);
+                throw e;
+            }
+        }
+
+        try {
+            return entry.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    private synchronized void rendered(Key key, int size) {
+        if (!entries.containsKey(key)) {
+            // superseded by a rendering of newer input files while rendering
+            return;
+        }
+
+        sizes.put(key, size);
+        cachedBytes += size;
+
+        Iterator<Key> leastRecentlyUsed = entries.keySet().iterator();
+        while (leastRecentlyUsed.hasNext()) {
+            Key cached = leastRecentlyUsed.next();
+            // a rendering of newer input files makes the older ones unreachable
+            boolean stale = cached.getName().equals(key.getName()) && !cached.getInputs().equals(key.getInputs());
+            // renderings that are still in progress have no size yet and are never evicted for size
+            boolean overSize = cachedBytes > maxBytes && sizes.containsKey(cached);
+            if (stale || overSize) {
+                evict(cached);
+                leastRecentlyUsed.remove();
+            }
+        }
+    }
+
+    private void evict(Key key) {
+        Integer size = sizes.remove(key);
+        if (size != null) {
+            cachedBytes -= size;
+        }
+    }
+
+    /**
+     * Rendered ReSpec as UTF-8, with an entity tag derived from its content. The tag is weak, since responses are
+     * compressed on the fly and servers do not compress responses with a strong entity tag.
+     */
+    @Value
+    public static class Rendering {
+
+        byte[] content;
+
+        String etag;
+
+        static Rendering of(String markdown) {
+            byte[] content = markdown.getBytes(StandardCharsets.UTF_8);
+            return new Rendering(content, String.format("W/\"%s\"", DigestUtils.sha256Hex(content)));
+        }
+    }
+
+    @Value
+    private static class Key {
+
+        Object name;
+
+        List<InputState> inputs;
+
+        static Key of(Object name, List<Path> inputs) {
+            List<InputState> states = new ArrayList<>(inputs.size());
+            for (Path input : inputs) {
+                states.add(InputState.of(input));
+            }
+            return new Key(name, states);
+        }
+    }
+
+    @Value
+    private static class InputState {
+
+        Path path;
+
+        long lastModified;
+
+        long size;
+
+        static InputState of(Path path) {
+            Path absolutePath = path.toAbsolutePath().normalize();
+            try {
+                BasicFileAttributes attributes = Files.readAttributes(absolutePath, BasicFileAttributes.class);
+                return new InputState(absolutePath, attributes.lastModifiedTime().toMillis(), attributes.size());
+            } catch (IOException e) {
+                throw new Rdf2ReSpecException(String.format("Cannot read attributes of %s", path), e);
+            }
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.skemu.rdf.rdf2respec;
+
+import com.skemu.rdf.rdf2respec.respecmapping.ReSpecMapping;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import lombok.Value;
+import net.steppschuh.markdowngenerator.Markdown;
+import net.steppschuh.markdowngenerator.text.heading.Heading;
+import org.eclipse.rdf4j.model.IRI;
+
+/**
+ * The static markdown of a mapping, rendered once, so mapping a section only appends the values of its resource in
+ * between. Fragments are rendered with the same markdown elements sections used to be rendered with.
+ */
+class RenderPlan {
+
+    static final String NEWLINE = String.format("%n");
+
+    static final String VALUE_SEPARATOR = ";" + NEWLINE;
+
+    static final String ATTRIBUTE_SUFFIX = NEWLINE;
+
+    private static final int MIN_HEADING_LEVEL = 1;
+
+    private static final int MAX_HEADING_LEVEL = 6;
+
+    private final String[] headingPrefixes = new String[MAX_HEADING_LEVEL + 1];
+
+    private final List<Attribute> attributes;
+
+    // labels of unmapped attributes are their local names, rendered as the predicates are met
+    private final Map<IRI, String> prefixesByPredicate = new ConcurrentHashMap<>();
+
+    private final String issuePrefix;
+
+    private final String issueSuffix;
+
+    private RenderPlan(List<Attribute> attributes, String issueTag) {
+        for (int level = MIN_HEADING_LEVEL; level <= MAX_HEADING_LEVEL; level++) {
+            Heading heading = Markdown.heading("", level);
+            heading.setUnderlineStyle(false);
+            headingPrefixes[level] = heading.toString();
+        }
+        this.attributes = attributes;
+        this.issuePrefix = String.format("%n<%s class=\"issue\" data-number=\"", issueTag);
+        this.issueSuffix = String.format("\"></%s>%n", issueTag);
+    }
+
+    static RenderPlan compile(ReSpecMapping reSpecMapping, Map<IRI, String> attributeMappings) {
+        List<Attribute> attributes = new ArrayList<>(attributeMappings.size());
+        attributeMappings.forEach((predicate, label) -> attributes.add(new Attribute(predicate, attributePrefix(label))));
+        return new RenderPlan(Collections.unmodifiableList(attributes), reSpecMapping.getIssueMapping().getIssueHtmlTag());
+    }
+
+    private static String attributePrefix(String label) {
+        return NEWLINE + Markdown.bold(label) + ": ";
+    }
+
+    /**
+     * The heading marker of a section at the given level, which is limited to the levels markdown supports.
+     */
+    String getHeadingPrefix(int level) {
+        return headingPrefixes[Math.max(MIN_HEADING_LEVEL, Math.min(MAX_HEADING_LEVEL, level))];
+    }
+
+    List<Attribute> getAttributes() {
+        return attributes;
+    }
+
+    String getAttributePrefix(IRI predicate) {
+        return prefixesByPredicate.computeIfAbsent(predicate, key -> attributePrefix(key.getLocalName()));
+    }
+
+    String getIssuePrefix() {
+        return issuePrefix;
+    }
+
+    String getIssueSuffix() {
+        return issueSuffix;
+    }
+
+    @Value
+    static class Attribute {
+
+        IRI predicate;
+
+        // everything up to the values of the attribute
+        String prefix;
+    }
+}
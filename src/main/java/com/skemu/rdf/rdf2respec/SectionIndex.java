@@ -0,0 +1,119 @@
+package com.skemu.rdf.rdf2respec;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.eclipse.rdf4j.model.IRI;
+import org.eclipse.rdf4j.model.Model;
+import org.eclipse.rdf4j.model.Resource;
+
+/**
+ * Lookup of section titles and anchors per resource, built in a single pass over a model. A resource's title is the
+ * first value of the title predicate in model order.
+ *
+ * <p>ReSpec gives headings with the same anchor a numbered suffix, starting at {@code -0}, in the order they appear in
+ * the document. Once the headings of a document are known, {@link #inDocumentOrder(List)} numbers anchors the same way,
+ * so links point at the first heading of a resource. Until then, and for resources without a heading, the anchor is the
+ * one of the title.
+ */
+public class SectionIndex {
+
+    // characters dropped from anchors, whitespace is replaced by a dash
+    private static final String DROPPED_CHARACTERS = "(,'\"!@#$%^&*;:)";
+
+    private final Map<Resource, String> titles;
+
+    // anchors of the first heading of resources in the document, numbered like ReSpec does
+    private final Map<Resource, String> anchors;
+
+    private SectionIndex(Map<Resource, String> titles, Map<Resource, String> anchors) {
+        this.titles = titles;
+        this.anchors = anchors;
+    }
+
+    public static SectionIndex of(Model model, IRI titlePredicate) {
+        Map<Resource, String> titles = new HashMap<>();
+        model.filter(null, titlePredicate, null)
+                .forEach(statement -> titles.putIfAbsent(statement.getSubject(), statement.getObject().stringValue()));
+        return new SectionIndex(titles, Map.of());
+    }
+
+    /**
+     * The same titles, with the anchors of a document that renders a heading for each of the resources, in order.
+     * Resources can have several headings, when they are rendered more than once.
+     */
+    public SectionIndex inDocumentOrder(List<Resource> headings) {
+        Map<Resource, String> documentAnchors = new HashMap<>();
+        Set<String> ids = new HashSet<>();
+        for (Resource resource : headings) {
+            String anchor = toAnchor(getName(resource));
+            if (!ids.add(anchor)) {
+                String duplicate = anchor;
+                int suffix = 0;
+                do {
+                    anchor = duplicate + "-" + suffix++;
+                } while (!ids.add(anchor));
+            }
+            documentAnchors.putIfAbsent(resource, anchor);
+        }
+        return new SectionIndex(titles, documentAnchors);
+    }
+
+    public boolean hasTitle(Resource resource) {
+        return titles.containsKey(resource);
+    }
+
+    /**
+     * The title of the section of a resource, or the local name of resources without a title.
+     */
+    public String getName(Resource resource) {
+        String title = titles.get(resource);
+        if (title != null) {
+            return title;
+        }
+        return resource instanceof IRI ? ((IRI) resource).getLocalName() : resource.toString();
+    }
+
+    public String getAnchor(Resource resource) {
+        String anchor = anchors.get(resource);
+        return anchor != null ? anchor : toAnchor(getName(resource));
+    }
+
+    /**
+     * Turns a title into an anchor: trimmed, lower case, without punctuation and with whitespace replaced by dashes.
+     */
+    public static String toAnchor(String title) {
+        String lowerCase = title.trim().toLowerCase();
+
+        int length = lowerCase.length();
+        int i = 0;
+        while (i < length && isKept(lowerCase.charAt(i))) {
+            i++;
+        }
+        if (i == length) {
+            return lowerCase;
+        }
+
+        StringBuilder anchor = new StringBuilder(length).append(lowerCase, 0, i);
+        for (; i < length; i++) {
+            char c = lowerCase.charAt(i);
+            if (isWhitespace(c)) {
+                anchor.append('-');
+            } else if (DROPPED_CHARACTERS.indexOf(c) < 0) {
+                anchor.append(c);
+            }
+        }
+        return anchor.toString();
+    }
+
+    private static boolean isKept(char c) {
+        return !isWhitespace(c) && DROPPED_CHARACTERS.indexOf(c) < 0;
+    }
+
+    // the characters matched by \s in a regular expression
+    private static boolean isWhitespace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+    }
+}
@@ -0,0 +1,271 @@
+package com.skemu.rdf.rdf2respec;
+
+import com.skemu.rdf.rdf2respec.respecmapping.CyclePolicy;
+import com.skemu.rdf.rdf2respec.respecmapping.SharedSubtrees;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import lombok.Getter;
+import org.eclipse.rdf4j.model.Resource;
+
+/**
+ * Renders the nodes visited by a {@link HierarchyTraversal} as nested sections. Subtrees of nodes with several parents
+ * are rendered again, reused or linked to according to {@link SharedSubtrees}. Nodes at the shard depth are rendered
+ * as a link to their shard instead, see {@link ShardPlan}.
+ *
+ * <p>Links can point at sections further down the document, so the anchors of a document are numbered before it is
+ * rendered, from the headings listed by {@link #headings(List, SharedSubtrees, int)}.
+ */
+class SectionRenderer implements HierarchyTraversal.Visitor {
+
+    private static final String NEWLINE = String.format("%n");
+
+    private final Rdf2ReSpecMapper mapper;
+
+    private final ModelIndex index;
+
+    private final SharedSubtrees sharing;
+
+    private final Appendable out;
+
+    // 0 when nothing is rendered to shards
+    private final int shardDepth;
+
+    private final Deque<Section> sections = new ArrayDeque<>();
+
+    private final Map<Node, Integer> sectionCountByNode = new HashMap<>();
+
+    // headings differ per depth, so rendered markdown is kept per depth
+    private final Map<Node, Map<Integer, String>> markdownByNode = new HashMap<>();
+
+    @Getter
+    private long renderedSections;
+
+    @Getter
+    private int repeatedSubtrees;
+
+    @Getter
+    private long avoidedSections;
+
+    SectionRenderer(Rdf2ReSpecMapper mapper, ModelIndex index, SharedSubtrees sharing, Appendable out) {
+        this(mapper, index, sharing, out, 0);
+    }
+
+    SectionRenderer(Rdf2ReSpecMapper mapper, ModelIndex index, SharedSubtrees sharing, Appendable out, int shardDepth) {
+        this.mapper = mapper;
+        this.index = index;
+        this.sharing = sharing == null ? SharedSubtrees.repeat : sharing;
+        this.out = out;
+        this.shardDepth = shardDepth;
+    }
+
+    @Override
+    public boolean enter(Node node, int depth) throws IOException {
+        Section parent = sections.peek();
+        Appendable parentOut = parent == null ? out : parent.out;
+        if (parent != null) {
+            if (!parent.first) {
+                parentOut.append(NEWLINE);
+            }
+            parent.first = false;
+        }
+
+        if (depth == shardDepth) {
+            mapper.mapAsReference(parentOut, index, node.getSource());
+            parentOut.append(NEWLINE);
+            return false;
+        }
+
+        boolean shared = sharing != SharedSubtrees.repeat && node.getParents().size() > 1;
+        if (shared) {
+            Integer sectionCount = sectionCountByNode.get(node);
+            if (sharing == SharedSubtrees.link && sectionCount != null) {
+                mapper.mapAsReference(parentOut, index, node.getSource());
+                parentOut.append(NEWLINE);
+                repeated(sectionCount);
+                return false;
+            }
+
+            String markdown = sharing == SharedSubtrees.reuse
+                    ? markdownByNode.getOrDefault(node, Map.of()).get(depth)
+                    : null;
+            if (markdown != null) {
+                parentOut.append(markdown);
+                repeated(sectionCount);
+                if (parent != null) {
+                    parent.count += sectionCount;
+                }
+                return false;
+            }
+        }
+
+        Section section = new Section(parentOut, shared, shared && sharing == SharedSubtrees.reuse);
+        mapper.mapAsSection(section.out, index, node.getSource(), depth);
+        renderedSections++;
+        section.out.append(NEWLINE);
+        sections.push(section);
+        return true;
+    }
+
+    @Override
+    public void exit(Node node, int depth) throws IOException {
+        Section section = sections.pop();
+        if (section.capture != null) {
+            section.parentOut.append(section.capture);
+            if (!section.pathDependent) {
+                markdownByNode.computeIfAbsent(node, key -> new HashMap<>()).put(depth, section.capture.toString());
+            }
+        }
+        if (section.shared) {
+            sectionCountByNode.put(node, section.count);
+        }
+
+        Section parent = sections.peek();
+        if (parent != null) {
+            parent.count += section.count;
+        }
+    }
+
+    @Override
+    public void cycle(Node parent, Node child) {
+        // the markdown of the sections on the path now depends on the path, so it cannot be reused elsewhere
+        if (sharing == SharedSubtrees.reuse) {
+            sections.forEach(section -> section.pathDependent = true);
+        }
+    }
+
+    private void repeated(int sectionCount) {
+        repeatedSubtrees++;
+        avoidedSections += sectionCount;
+    }
+
+    /**
+     * Lists the resources of the headings a renderer writes for the roots, in document order, without rendering them.
+     */
+    static List<Resource> headings(List<Node> roots, SharedSubtrees sharing, int shardDepth) {
+        HeadingRecorder recorder = new HeadingRecorder(sharing == null ? SharedSubtrees.repeat : sharing, shardDepth);
+        // cycles are broken the same way under every policy, they are reported when rendering
+        HierarchyTraversal traversal = new HierarchyTraversal(CyclePolicy.ignore);
+        try {
+            for (Node root : roots) {
+                traversal.traverse(root, 1, recorder);
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Listing headings does not throw IOException", e);
+        }
+        return recorder.headings;
+    }
+
+    /**
+     * Follows the decisions of {@link SectionRenderer#enter(Node, int)}, but records the resource of every heading
+     * instead of rendering it. Reused markdown repeats the headings that were recorded for it.
+     */
+    private static class HeadingRecorder implements HierarchyTraversal.Visitor {
+
+        private final SharedSubtrees sharing;
+
+        private final int shardDepth;
+
+        private final List<Resource> headings = new ArrayList<>();
+
+        // start of the headings of the shared subtrees being recorded, and whether they depend on the path
+        private final Deque<Recording> recordings = new ArrayDeque<>();
+
+        private final Set<Node> linkable = new HashSet<>();
+
+        private final Map<Node, Map<Integer, List<Resource>>> headingsByNode = new HashMap<>();
+
+        HeadingRecorder(SharedSubtrees sharing, int shardDepth) {
+            this.sharing = sharing;
+            this.shardDepth = shardDepth;
+        }
+
+        @Override
+        public boolean enter(Node node, int depth) {
+            if (depth == shardDepth) {
+                return false;
+            }
+
+            boolean shared = sharing != SharedSubtrees.repeat && node.getParents().size() > 1;
+            if (shared) {
+                if (sharing == SharedSubtrees.link && linkable.contains(node)) {
+                    return false;
+                }
+
+                List<Resource> reused = sharing == SharedSubtrees.reuse
+                        ? headingsByNode.getOrDefault(node, Map.of()).get(depth)
+                        : null;
+                if (reused != null) {
+                    headings.addAll(reused);
+                    return false;
+                }
+            }
+
+            recordings.push(new Recording(headings.size(), shared));
+            headings.add(node.getSource());
+            return true;
+        }
+
+        @Override
+        public void exit(Node node, int depth) {
+            Recording recording = recordings.pop();
+            if (recording.shared && sharing == SharedSubtrees.reuse && !recording.pathDependent) {
+                headingsByNode.computeIfAbsent(node, key -> new HashMap<>())
+                        .put(depth, new ArrayList<>(headings.subList(recording.start, headings.size())));
+            }
+            if (recording.shared) {
+                linkable.add(node);
+            }
+        }
+
+        @Override
+        public void cycle(Node parent, Node child) {
+            recordings.forEach(recording -> recording.pathDependent = true);
+        }
+    }
+
+    private static class Recording {
+
+        private final int start;
+
+        private final boolean shared;
+
+        private boolean pathDependent;
+
+        Recording(int start, boolean shared) {
+            this.start = start;
+            this.shared = shared;
+        }
+    }
+
+    private static class Section {
+
+        private final Appendable parentOut;
+
+        private final Appendable out;
+
+        // only set when the markdown of the subtree is kept for reuse
+        private final StringBuilder capture;
+
+        private final boolean shared;
+
+        private boolean first = true;
+
+        private int count = 1;
+
+        private boolean pathDependent;
+
+        Section(Appendable parentOut, boolean shared, boolean capture) {
+            this.parentOut = parentOut;
+            this.shared = shared;
+            this.capture = capture ? new StringBuilder() : null;
+            this.out = capture ? this.capture : parentOut;
+        }
+    }
+}
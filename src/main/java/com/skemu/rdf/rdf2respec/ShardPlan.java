@@ -0,0 +1,288 @@
+package com.skemu.rdf.rdf2respec;
+
+import com.skemu.rdf.rdf2respec.respecmapping.CyclePolicy;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import lombok.Getter;
+import lombok.Value;
+import org.apache.commons.io.FilenameUtils;
+import org.eclipse.rdf4j.model.Resource;
+
+/**
+ * Splits a hierarchy into an index document with the sections above the shard depth, and a shard document per section
+ * at the shard depth with everything below it. Shards are kept in a directory next to the index, named after the index
+ * with a {@code .shards} extension, in which a marker file lists the shards written there. Only shards listed in the
+ * marker are ever deleted.
+ *
+ * <p>Every resource is assigned the document its section is rendered in, so links from other documents can point
+ * there. A resource rendered in several documents belongs to the index when it is rendered there, to its own shard
+ * when it is the root of one, and otherwise to the first shard it is rendered in.
+ */
+class ShardPlan {
+
+    private static final String EXTENSION = ".md";
+
+    private static final String DIRECTORY_EXTENSION = ".shards";
+
+    private static final String MARKER = ".rdf2respec-shards";
+
+    // file name of shards whose section title has no characters left for an anchor
+    private static final String UNNAMED_SHARD = "section";
+
+    @Getter
+    private final Path directory;
+
+    @Getter
+    private final List<Shard> shards;
+
+    @Getter
+    private final Document index;
+
+    @Getter
+    private final Map<Resource, Document> documents;
+
+    private ShardPlan(Path directory, List<Shard> shards, Document index, Map<Resource, Document> documents) {
+        this.directory = directory;
+        this.shards = shards;
+        this.index = index;
+        this.documents = documents;
+    }
+
+    /**
+     * Plans the shards of the hierarchy below the roots.
+     *
+     * @param indexPath the file the index is written to
+     * @param shardDepth the depth of the sections that are rendered to a shard, where 1 shards per root
+     * @param anchors the anchor of the section of a resource, which shard files are named after
+     */
+    static ShardPlan of(Path indexPath, List<Node> roots, int shardDepth, Function<Resource, String> anchors) {
+        String indexName = indexPath.getFileName().toString();
+        Path directory = directoryOf(indexPath);
+        String directoryName = directory.getFileName().toString();
+        Document index = new Document(true, indexName, "../" + indexName);
+
+        Map<Resource, Document> documents = new HashMap<>();
+        List<Node> shardRoots = collectShardRoots(roots, shardDepth, node -> documents.putIfAbsent(node.getSource(), index));
+
+        List<Shard> shards = new ArrayList<>(shardRoots.size());
+        Set<String> fileNames = new HashSet<>();
+        for (Node root : shardRoots) {
+            String fileName = uniqueFileName(anchors.apply(root.getSource()), fileNames);
+            Document document = new Document(false, directoryName + "/" + fileName, fileName);
+            documents.put(root.getSource(), document);
+            shards.add(new Shard(root, directory.resolve(fileName), document));
+        }
+
+        // resources below a shard root belong to the first shard they are rendered in
+        for (Shard shard : shards) {
+            Deque<Node> pending = new ArrayDeque<>(shard.getRoot().getChildren());
+            while (!pending.isEmpty()) {
+                Node node = pending.pop();
+                if (documents.putIfAbsent(node.getSource(), shard.getDocument()) == null) {
+                    pending.addAll(node.getChildren());
+                }
+            }
+        }
+
+        return new ShardPlan(directory, Collections.unmodifiableList(shards), index, documents);
+    }
+
+    /**
+     * Collects the nodes at the shard depth in traversal order, and hands the nodes above it to the consumer. A node is
+     * only descended into once per depth, since its subtree is the same on every path.
+     */
+    private static List<Node> collectShardRoots(List<Node> roots, int shardDepth, Consumer<Node> above) {
+        List<Node> shardRoots = new ArrayList<>();
+        Set<Node> collected = Collections.newSetFromMap(new IdentityHashMap<>());
+        Map<Node, BitSet> visitedDepths = new IdentityHashMap<>();
+
+        HierarchyTraversal traversal = new HierarchyTraversal(CyclePolicy.ignore);
+        HierarchyTraversal.Visitor visitor = new HierarchyTraversal.Visitor() {
+
+            @Override
+            public boolean enter(Node node, int depth) {
+                BitSet depths = visitedDepths.computeIfAbsent(node, key -> new BitSet());
+                if (depths.get(depth)) {
+                    return false;
+                }
+                depths.set(depth);
+
+                if (depth == shardDepth) {
+                    if (collected.add(node)) {
+                        shardRoots.add(node);
+                    }
+                    return false;
+                }
+                above.accept(node);
+                return true;
+            }
+
+            @Override
+            public void exit(Node node, int depth) {
+            }
+        };
+
+        try {
+            for (Node root : roots) {
+                traversal.traverse(root, 1, visitor);
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Collecting shard roots does not throw IOException", e);
+        }
+        return shardRoots;
+    }
+
+    // names are compared ignoring case, so shards do not overwrite each other on case-insensitive file systems
+    private static String uniqueFileName(String anchor, Set<String> fileNames) {
+        String name = toFileName(anchor);
+        String fileName = name + EXTENSION;
+        int suffix = 0;
+        while (!fileNames.add(fileName.toLowerCase(Locale.ROOT))) {
+            fileName = name + "-" + suffix++ + EXTENSION;
+        }
+        return fileName;
+    }
+
+    // keeps letters, digits, dots, dashes and underscores, so the name is safe in file systems and in links
+    private static String toFileName(String anchor) {
+        StringBuilder name = new StringBuilder(anchor.length());
+        for (int i = 0; i < anchor.length(); i++) {
+            char c = anchor.charAt(i);
+            name.append(Character.isLetterOrDigit(c) || c == '.' || c == '-' || c == '_' ? c : '-');
+        }
+        return name.length() == 0 || name.charAt(0) == '.' ? UNNAMED_SHARD + name : name.toString();
+    }
+
+    /**
+     * The directory the shards of an index are written to.
+     */
+    static Path directoryOf(Path indexPath) {
+        return indexPath.resolveSibling(
+                FilenameUtils.removeExtension(indexPath.getFileName().toString()) + DIRECTORY_EXTENSION);
+    }
+
+    /**
+     * Adds the shards of this plan to the marker before they are written, so they are known even when writing fails.
+     */
+    void recordShards() throws IOException {
+        Set<String> recorded = readMarker(directory);
+        recorded.addAll(getFileNames());
+        writeMarker(directory, recorded);
+    }
+
+    /**
+     * Removes shards of earlier runs that are not part of this plan, and leaves only the shards of this plan in the
+     * marker.
+     */
+    void deleteStaleShards() throws IOException {
+        Set<String> current = getFileNames();
+        deleteShards(directory, current);
+        if (!current.isEmpty()) {
+            writeMarker(directory, current);
+        }
+    }
+
+    /**
+     * Removes the shards of an index, together with their directory when nothing else is left in it.
+     */
+    static void deleteShards(Path indexPath) throws IOException {
+        deleteShards(directoryOf(indexPath), Set.of());
+    }
+
+    private Set<String> getFileNames() {
+        return shards.stream()
+                .map(shard -> shard.getPath().getFileName().toString())
+                .collect(Collectors.toCollection(TreeSet::new));
+    }
+
+    private static void deleteShards(Path directory, Set<String> kept) throws IOException {
+        Set<String> recorded = readMarker(directory);
+        for (String fileName : recorded) {
+            if (!kept.contains(fileName)) {
+                Files.deleteIfExists(directory.resolve(fileName));
+            }
+        }
+
+        if (kept.isEmpty() && Files.isDirectory(directory)) {
+            Files.deleteIfExists(directory.resolve(MARKER));
+            try (Stream<Path> paths = Files.list(directory)) {
+                if (paths.findAny().isEmpty()) {
+                    Files.delete(directory);
+                }
+            }
+        }
+    }
+
+    // names of shard files in the directory, anything else in the marker is not a shard of this tool
+    private static Set<String> readMarker(Path directory) throws IOException {
+        Path marker = directory.resolve(MARKER);
+        if (!Files.isRegularFile(marker)) {
+            return new TreeSet<>();
+        }
+        return Files.readAllLines(marker, StandardCharsets.UTF_8).stream()
+                .filter(ShardPlan::isShardFileName)
+                .collect(Collectors.toCollection(TreeSet::new));
+    }
+
+    private static boolean isShardFileName(String fileName) {
+        return fileName.endsWith(EXTENSION) && !fileName.startsWith(".") && fileName.indexOf('/') < 0
+                && fileName.indexOf('\\') < 0;
+    }
+
+    private static void writeMarker(Path directory, Set<String> fileNames) throws IOException {
+        Files.createDirectories(directory);
+        Files.write(directory.resolve(MARKER), fileNames, StandardCharsets.UTF_8);
+    }
+
+    @Value
+    static class Shard {
+
+        Node root;
+
+        Path path;
+
+        Document document;
+    }
+
+    /**
+     * A document of a sharded output, with the relative links to it from the index and from the other shards.
+     */
+    @Value
+    static class Document {
+
+        boolean index;
+
+        String linkFromIndex;
+
+        String linkFromShard;
+
+        /**
+         * The relative link from this document to another one, which is empty when it is this document.
+         */
+        String linkTo(Document target) {
+            if (target == this) {
+                return "";
+            }
+            return index ? target.linkFromIndex : target.linkFromShard;
+        }
+    }
+}
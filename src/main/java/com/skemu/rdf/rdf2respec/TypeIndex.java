@@ -0,0 +1,98 @@
+package com.skemu.rdf.rdf2respec;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import org.eclipse.rdf4j.model.Model;
+import org.eclipse.rdf4j.model.Resource;
+import org.eclipse.rdf4j.model.Value;
+import org.eclipse.rdf4j.model.vocabulary.RDF;
+
+/**
+ * Instances per class, built in a single pass over the {@code rdf:type} statements of a model. Classes, and the
+ * instances of each class, are sorted by title and by IRI among equal titles, so the order does not depend on the
+ * order of the model.
+ */
+public class TypeIndex {
+
+    private final Map<Resource, List<Resource>> instancesByClass;
+
+    private final int instanceCount;
+
+    private TypeIndex(Map<Resource, List<Resource>> instancesByClass, int instanceCount) {
+        this.instancesByClass = instancesByClass;
+        this.instanceCount = instanceCount;
+    }
+
+    /**
+     * Indexes the instances of the given class, or of all classes when it is null.
+     *
+     * @param titles the title a resource is sorted by
+     */
+    public static TypeIndex of(Model model, Resource type, Function<Resource, String> titles) {
+        Map<Resource, Set<Resource>> collected = new HashMap<>();
+        model.filter(null, RDF.TYPE, type).forEach(statement -> {
+            if (statement.getObject() instanceof Resource) {
+                collected.computeIfAbsent((Resource) statement.getObject(), key -> new HashSet<>())
+                        .add(statement.getSubject());
+            }
+        });
+
+        // titles are looked up once per resource instead of once per comparison
+        Map<Resource, String> titleCache = new HashMap<>();
+        Function<Resource, String> title = resource -> titleCache.computeIfAbsent(resource, titles);
+        Comparator<Resource> byTitle = Comparator.comparing(title, String.CASE_INSENSITIVE_ORDER)
+                .thenComparing(title)
+                .thenComparing(Value::stringValue);
+
+        Map<Resource, List<Resource>> instancesByClass = new LinkedHashMap<>();
+        int instanceCount = 0;
+        for (Resource clazz : sorted(collected.keySet(), byTitle)) {
+            List<Resource> instances = sorted(collected.get(clazz), byTitle);
+            instancesByClass.put(clazz, instances);
+            instanceCount += instances.size();
+        }
+
+        return new TypeIndex(instancesByClass, instanceCount);
+    }
+
+    private static List<Resource> sorted(Collection<Resource> resources, Comparator<Resource> comparator) {
+        List<Resource> sorted = new ArrayList<>(resources);
+        sorted.sort(comparator);
+        return sorted;
+    }
+
+    public Set<Resource> getClasses() {
+        return instancesByClass.keySet();
+    }
+
+    public List<Resource> getInstances(Resource clazz) {
+        return instancesByClass.getOrDefault(clazz, List.of());
+    }
+
+    /**
+     * The resources of the sections the index renders to, in document order: every class followed by its instances.
+     */
+    public List<Resource> getHeadings() {
+        List<Resource> headings = new ArrayList<>(instancesByClass.size() + instanceCount);
+        instancesByClass.forEach((clazz, instances) -> {
+            headings.add(clazz);
+            headings.addAll(instances);
+        });
+        return headings;
+    }
+
+    /**
+     * The number of sections the index renders to, counting instances of several classes once per class.
+     */
+    public int getInstanceCount() {
+        return instanceCount;
+    }
+}
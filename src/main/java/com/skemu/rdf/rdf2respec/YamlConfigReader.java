@@ -14,13 +14,9 @@ import java.util.regex.Pattern;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang3.StringUtils;
-import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.core.env.Environment;
 @Slf4j
 public final class YamlConfigReader {
     private static final Pattern p = Pattern.compile("\\$\\{((?>[A-Z]|_)*)}");
-    @Autowired
-    static Environment env;
     private YamlConfigReader() {}
     public static <T> Optional<T> parseYamlConfig(Path filePath, Class<T> clazz) {
         if (Files.exists(filePath)) {
@@ -58,7 +54,8 @@ public final class YamlConfigReader {
         Matcher matcher = p.matcher(content);
         while (matcher.find()) {
             String key = matcher.group(1);
-            String value = env.getProperty(key);
+            // system properties take precedence over environment variables, as in the Spring environment
+            String value = System.getProperty(key, System.getenv(key));
             content = content.replace(matcher.group(), value != null ? value : matcher.group());
         }
         return content;
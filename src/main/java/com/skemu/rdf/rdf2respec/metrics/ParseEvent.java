@@ -0,0 +1,19 @@
+package com.skemu.rdf.rdf2respec.metrics;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("com.skemu.rdf.rdf2respec.Parse")
+@Label("Parse")
+@Description("Parsing an input file into a model")
+class ParseEvent extends PhaseEvent {
+
+    @Label("Statements")
+    long statements;
+
+    @Override
+    void setCount(long count) {
+        statements = count;
+    }
+}
@@ -0,0 +1,20 @@
+package com.skemu.rdf.rdf2respec.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+
+/**
+ * JFR event spanning one phase of generating ReSpec for a file of a source.
+ */
+@Category("RDF 2 ReSpec")
+abstract class PhaseEvent extends Event {
+
+    @Label("Source")
+    String source;
+
+    @Label("File")
+    String file;
+
+    abstract void setCount(long count);
+}
@@ -0,0 +1,234 @@
+package com.skemu.rdf.rdf2respec.metrics;
+
+import com.skemu.rdf.rdf2respec.sources.Source;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Micrometer meters and JFR events for the phases of generating ReSpec for a source: parse, tree build, render and
+ * write. Meters are tagged with the input location of the source, events also carry the file.
+ */
+public class ProcessorMetrics {
+
+    private static final String PREFIX = "rdf2respec";
+
+    private static final String SOURCE_TAG = "source";
+
+    private static final String OUTCOME_TAG = "outcome";
+
+    private final String source;
+
+    private final Phase parse;
+
+    private final Phase treeBuild;
+
+    private final Phase render;
+
+    private final Phase write;
+
+    private final Timer file;
+
+    private final Timer failedFile;
+
+    private ProcessorMetrics(String source, MeterRegistry registry) {
+        this.source = source;
+        this.parse = new Phase(ParseEvent::new, timer(registry, "parse", "Time spent parsing an input file"),
+                counter(registry, "parse.statements", "Statements parsed", "statements"));
+        this.treeBuild = new Phase(TreeBuildEvent::new, timer(registry, "tree.build", "Time spent building the hierarchy of a model"),
+                counter(registry, "tree.nodes", "Hierarchy nodes built", "nodes"));
+        this.render = new Phase(RenderEvent::new, timer(registry, "render", "Time spent rendering markdown, including streamed writes"),
+                counter(registry, "render.sections", "Sections rendered", "sections"));
+        this.write = new Phase(WriteEvent::new, timer(registry, "write", "Time spent in output file I/O"),
+                counter(registry, "write.bytes", "Bytes written", "bytes"));
+        this.file = fileTimer(registry, "success");
+        this.failedFile = fileTimer(registry, "failure");
+    }
+
+    public static ProcessorMetrics of(Source source) {
+        return of(source, Metrics.globalRegistry);
+    }
+
+    public static ProcessorMetrics of(Source source, MeterRegistry registry) {
+        return new ProcessorMetrics(source.getInputLocation(), registry);
+    }
+
+    private Timer timer(MeterRegistry registry, String name, String description) {
+        return Timer.builder(PREFIX + "." + name)
+                .description(description)
+                .tag(SOURCE_TAG, source)
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+
+    private Timer fileTimer(MeterRegistry registry, String outcome) {
+        return Timer.builder(PREFIX + ".file")
+                .description("Time spent generating the output of an input file")
+                .tags(SOURCE_TAG, source, OUTCOME_TAG, outcome)
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+
+    private Counter counter(MeterRegistry registry, String name, String description, String unit) {
+        return Counter.builder(PREFIX + "." + name)
+                .description(description)
+                .baseUnit(unit)
+                .tag(SOURCE_TAG, source)
+                .register(registry);
+    }
+
+    public Measurement startParse(Path path) {
+        return parse.start(path);
+    }
+
+    public Measurement startTreeBuild(Path path) {
+        return treeBuild.start(path);
+    }
+
+    public Measurement startRender(Path path) {
+        return render.start(path);
+    }
+
+    /**
+     * Measures the whole generation of the output of an input file. Phases are measured separately.
+     */
+    public Timer.Sample startFile() {
+        return Timer.start();
+    }
+
+    /**
+     * @param succeeded whether the output was generated, failed files are recorded with a failure outcome
+     */
+    public void stopFile(Timer.Sample sample, boolean succeeded) {
+        sample.stop(succeeded ? file : failedFile);
+    }
+
+    /**
+     * Wraps the output stream of a file, recording the bytes written and the time spent writing when it is closed.
+     */
+    public OutputStream meterWrites(OutputStream out, Path path) {
+        return new MeteredOutputStream(out, (WriteEvent) write.begin(path));
+    }
+
+    private String toFile(Path path) {
+        return path == null ? null : path.toString();
+    }
+
+    /**
+     * A started measurement of a phase, ended once with the number of items the phase produced.
+     */
+    public static class Measurement {
+
+        private final Phase phase;
+
+        private final PhaseEvent event;
+
+        private final long start = System.nanoTime();
+
+        private Measurement(Phase phase, PhaseEvent event) {
+            this.phase = phase;
+            this.event = event;
+        }
+
+        public void end(long count) {
+            phase.record(event, count, System.nanoTime() - start);
+        }
+    }
+
+    private class Phase {
+
+        private final Supplier<PhaseEvent> events;
+
+        private final Timer timer;
+
+        private final Counter counter;
+
+        Phase(Supplier<PhaseEvent> events, Timer timer, Counter counter) {
+            this.events = events;
+            this.timer = timer;
+            this.counter = counter;
+        }
+
+        Measurement start(Path path) {
+            return new Measurement(this, begin(path));
+        }
+
+        PhaseEvent begin(Path path) {
+            PhaseEvent event = events.get();
+            event.source = source;
+            event.file = toFile(path);
+            event.begin();
+            return event;
+        }
+
+        void record(PhaseEvent event, long count, long nanos) {
+            timer.record(nanos, TimeUnit.NANOSECONDS);
+            counter.increment(count);
+            event.setCount(count);
+            event.commit();
+        }
+    }
+
+    private class MeteredOutputStream extends FilterOutputStream {
+
+        private final WriteEvent event;
+
+        private long bytes;
+
+        private long nanos;
+
+        private boolean closed;
+
+        MeteredOutputStream(OutputStream out, WriteEvent event) {
+            super(out);
+            this.event = event;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            long start = System.nanoTime();
+            out.write(b);
+            nanos += System.nanoTime() - start;
+            bytes++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            long start = System.nanoTime();
+            out.write(b, off, len);
+            nanos += System.nanoTime() - start;
+            bytes += len;
+        }
+
+        @Override
+        public void flush() throws IOException {
+            long start = System.nanoTime();
+            out.flush();
+            nanos += System.nanoTime() - start;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (closed) {
+                return;
+            }
+            closed = true;
+
+            long start = System.nanoTime();
+            try {
+                out.close();
+            } finally {
+                nanos += System.nanoTime() - start;
+                event.ioTime = nanos;
+                write.record(event, bytes, nanos);
+            }
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.skemu.rdf.rdf2respec.metrics;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("com.skemu.rdf.rdf2respec.Render")
+@Label("Render")
+@Description("Rendering the hierarchy of nodes as ReSpec markdown")
+class RenderEvent extends PhaseEvent {
+
+    @Label("Sections")
+    long sections;
+
+    @Override
+    void setCount(long count) {
+        sections = count;
+    }
+}
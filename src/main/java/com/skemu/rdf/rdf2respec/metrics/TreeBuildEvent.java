@@ -0,0 +1,19 @@
+package com.skemu.rdf.rdf2respec.metrics;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("com.skemu.rdf.rdf2respec.TreeBuild")
+@Label("Tree Build")
+@Description("Building the hierarchy of nodes from a model")
+class TreeBuildEvent extends PhaseEvent {
+
+    @Label("Nodes")
+    long nodes;
+
+    @Override
+    void setCount(long count) {
+        nodes = count;
+    }
+}
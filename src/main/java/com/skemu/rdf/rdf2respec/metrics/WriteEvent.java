@@ -0,0 +1,27 @@
+package com.skemu.rdf.rdf2respec.metrics;
+
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+@Name("com.skemu.rdf.rdf2respec.Write")
+@Label("Write")
+@Description("Writing an output file, from opening to closing it")
+class WriteEvent extends PhaseEvent {
+
+    @Label("Bytes")
+    @DataAmount
+    long bytes;
+
+    // output is written while rendering, so only part of the event duration is spent on I/O
+    @Label("I/O Time")
+    @Timespan
+    long ioTime;
+
+    @Override
+    void setCount(long count) {
+        bytes = count;
+    }
+}
@@ -3,6 +3,7 @@ package com.skemu.rdf.rdf2respec.respec;
 public class Paragraph {
 
     public enum Type {
-        hierarchical
+        hierarchical,
+        typed
     }
 }
@@ -0,0 +1,19 @@
+package com.skemu.rdf.rdf2respec.respecmapping;
+
+/**
+ * What to do when the hierarchical relation contains a cycle.
+ */
+public enum CyclePolicy {
+    /**
+     * Break the cycle by not descending into a node that is already an ancestor.
+     */
+    ignore,
+    /**
+     * Break the cycle like {@link #ignore}, and log it.
+     */
+    report,
+    /**
+     * Stop rendering with an error.
+     */
+    fail
+}
@@ -18,4 +18,8 @@ public class HierarchicalRelation {
     private Direction direction;
 
     private List<String> predicates = new ArrayList<>();
+
+    private SharedSubtrees sharedSubtrees = SharedSubtrees.repeat;
+
+    private CyclePolicy cyclePolicy = CyclePolicy.report;
 }
@@ -0,0 +1,20 @@
+package com.skemu.rdf.rdf2respec.respecmapping;
+
+/**
+ * How nodes with several parents are rendered under each of their parents.
+ */
+public enum SharedSubtrees {
+    /**
+     * Render the subtree again under every parent.
+     */
+    repeat,
+    /**
+     * Render the subtree once per depth, and repeat the rendered markdown under other parents. Gives the same output
+     * as {@link #repeat}.
+     */
+    reuse,
+    /**
+     * Render the subtree under the first parent only, and link to it from the other parents.
+     */
+    link
+}
@@ -0,0 +1,19 @@
+package com.skemu.rdf.rdf2respec.sources;
+
+/**
+ * What the input location of a source holds.
+ */
+public enum InputType {
+    /**
+     * RDF files, which are parsed into memory.
+     */
+    files,
+    /**
+     * The data directory of an RDF4J native store, which is read in place.
+     */
+    nativeStore,
+    /**
+     * The data directory of a persisted RDF4J memory store, which is loaded by the store.
+     */
+    memoryStore
+}
@@ -20,11 +20,36 @@ public class Source {
     @NonNull
     private String inputLocation;
 
+    @Builder.Default
+    private InputType inputType = InputType.files;
+
     private List<String> ignorePathsWith;
 
+    // globs relative to the input location
+    private List<String> includePaths;
+
+    private List<String> excludePaths;
+
+    @Builder.Default
+    private List<String> fileExtensions = List.of("ttl");
+
     @NonNull
     private String outputLocation;
 
     @NonNull
     private ReSpecMapping reSpecMapping;
+
+    @Builder.Default
+    private int concurrency = 1;
+
+    private boolean incremental;
+
+    private boolean projectedParse;
+
+    private boolean compactStore;
+
+    private String parseCacheLocation;
+
+    // 0 when every input is rendered to a single file
+    private int shardDepth;
 }
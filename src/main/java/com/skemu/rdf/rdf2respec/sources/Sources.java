@@ -12,4 +12,10 @@ import lombok.NoArgsConstructor;
 public class Sources {
 
     private List<Source> sources = new ArrayList<>();
+
+    private int concurrency = 1;
+
+    private long modelCacheSize = 1_000_000;
+
+    private long renderCacheSize = 64 * 1024 * 1024;
 }
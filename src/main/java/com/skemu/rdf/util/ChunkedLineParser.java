@@ -0,0 +1,150 @@
+package com.skemu.rdf.util;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Predicate;
+import lombok.Value;
+import org.eclipse.rdf4j.model.Statement;
+import org.eclipse.rdf4j.rio.RDFFormat;
+import org.eclipse.rdf4j.rio.RDFHandler;
+import org.eclipse.rdf4j.rio.helpers.AbstractRDFHandler;
+
+/**
+ * Parses line-based formats, N-Triples and N-Quads, on several cores. The file is memory-mapped and split into chunks
+ * on line boundaries, which are parsed concurrently. Statements reach the handler in file order, so the result is the
+ * same as that of a single parser.
+ *
+ * <p>Blank node ids are preserved by {@link RdfIoUtil}, which keeps blank nodes shared between chunks the same.
+ */
+public class ChunkedLineParser {
+
+    public static final long DEFAULT_CHUNK_SIZE = 32L * 1024 * 1024;
+
+    private static final int PROBE_SIZE = 8 * 1024;
+
+    private ChunkedLineParser() {
+    }
+
+    public static boolean supports(RDFFormat format) {
+        return RDFFormat.NTRIPLES.equals(format) || RDFFormat.NQUADS.equals(format);
+    }
+
+    public static void parse(Path file, RDFFormat format, Predicate<Statement> filter, RDFHandler handler) {
+        parse(file, format, filter, handler, DEFAULT_CHUNK_SIZE, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * @param chunkSize the size at which chunks are split, the next line boundary after it ends the chunk
+     * @param parallelism the number of chunks parsed ahead of the handler, which bounds the memory used for parsed
+     * statements that are waiting for their turn
+     */
+    public static void parse(Path file, RDFFormat format, Predicate<Statement> filter, RDFHandler handler, long chunkSize,
+            int parallelism) {
+        if (!supports(format)) {
+            throw new IllegalArgumentException(String.format("Format [%s] is not line-based", format));
+        }
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            List<Chunk> chunks = split(channel, chunkSize);
+            Deque<CompletableFuture<List<Statement>>> parsing = new ArrayDeque<>();
+            int next = 0;
+
+            handler.startRDF();
+            while (next < chunks.size() || !parsing.isEmpty()) {
+                while (next < chunks.size() && parsing.size() < Math.max(1, parallelism)) {
+                    Chunk chunk = chunks.get(next++);
+                    parsing.add(CompletableFuture.supplyAsync(() -> parseChunk(channel, chunk, format, filter)));
+                }
+
+                for (Statement statement : join(parsing.poll())) {
+                    handler.handleStatement(statement);
+                }
+            }
+            handler.endRDF();
+        } catch (IOException e) {
+            throw new RuntimeException(String.format("failed to parse file [%s] as [%s]", file, format), e);
+        }
+    }
+
+    private static List<Chunk> split(FileChannel channel, long chunkSize) throws IOException {
+        long size = channel.size();
+        List<Chunk> chunks = new ArrayList<>();
+        ByteBuffer probe = ByteBuffer.allocate(PROBE_SIZE);
+
+        long start = 0;
+        while (start < size) {
+            long end = nextLineStart(channel, Math.min(size, start + chunkSize), size, probe);
+            chunks.add(new Chunk(start, end));
+            start = end;
+        }
+        return chunks;
+    }
+
+    private static long nextLineStart(FileChannel channel, long position, long size, ByteBuffer probe)
+            throws IOException {
+        while (position < size) {
+            probe.clear();
+            int read = channel.read(probe, position);
+            if (read <= 0) {
+                break;
+            }
+            for (int i = 0; i < read; i++) {
+                if (probe.get(i) == '\n') {
+                    return position + i + 1;
+                }
+            }
+            position += read;
+        }
+        return size;
+    }
+
+    private static List<Statement> parseChunk(FileChannel channel, Chunk chunk, RDFFormat format,
+            Predicate<Statement> filter) {
+        try {
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, chunk.getStart(), chunk.getLength());
+            List<Statement> statements = new ArrayList<>();
+            RdfIoUtil.parse(new ByteBufferInputStream(buffer), format, filter, new AbstractRDFHandler() {
+
+                @Override
+                public void handleStatement(Statement statement) {
+                    statements.add(statement);
+                }
+            });
+            return statements;
+        } catch (IOException e) {
+            throw new RuntimeException(String.format("failed to map bytes %d to %d", chunk.getStart(), chunk.getEnd()), e);
+        }
+    }
+
+    private static List<Statement> join(CompletableFuture<List<Statement>> parsing) {
+        try {
+            return parsing.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    @Value
+    private static class Chunk {
+
+        long start;
+
+        long end;
+
+        long getLength() {
+            return end - start;
+        }
+    }
+}
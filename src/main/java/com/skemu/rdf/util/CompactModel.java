@@ -0,0 +1,551 @@
+package com.skemu.rdf.util;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.Set;
+import org.eclipse.rdf4j.model.IRI;
+import org.eclipse.rdf4j.model.Model;
+import org.eclipse.rdf4j.model.Namespace;
+import org.eclipse.rdf4j.model.Resource;
+import org.eclipse.rdf4j.model.Statement;
+import org.eclipse.rdf4j.model.Value;
+import org.eclipse.rdf4j.model.ValueFactory;
+import org.eclipse.rdf4j.model.impl.AbstractModel;
+import org.eclipse.rdf4j.model.impl.FilteredModel;
+import org.eclipse.rdf4j.model.impl.SimpleNamespace;
+import org.eclipse.rdf4j.model.impl.SimpleValueFactory;
+import org.eclipse.rdf4j.rio.helpers.AbstractRDFHandler;
+
+/**
+ * Read-only {@link Model} that stores every distinct value once, and statements as int ids in primitive arrays.
+ *
+ * <p>Statements are kept in insertion order, like a {@link org.eclipse.rdf4j.model.impl.LinkedHashModel}, next to an
+ * index of statement positions sorted by subject. Filtering on a subject is a direct lookup of its range in that
+ * index, all other patterns are answered with a scan over the id arrays. {@link Statement} objects are only created
+ * for the statements handed out.
+ *
+ * <p>Instances are created with a {@link Builder}, which can also be used as the RDF handler of a parser.
+ */
+public class CompactModel extends AbstractModel {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final ValueFactory VF = SimpleValueFactory.getInstance();
+
+    private static final int NONE = -1;
+
+    private final ValueDictionary dictionary;
+
+    private final int size;
+
+    private final int[] subjects;
+
+    private final int[] predicates;
+
+    private final int[] objects;
+
+    // null when all statements are in the default graph
+    private final int[] contexts;
+
+    private final int[] subjectRanks;
+
+    private final int[] subjectOffsets;
+
+    private final int[] subjectIndex;
+
+    private final Set<Namespace> namespaces;
+
+    private CompactModel(ValueDictionary dictionary, int size, int[] subjects, int[] predicates, int[] objects,
+            int[] contexts, int[] subjectRanks, int[] subjectOffsets, int[] subjectIndex, Set<Namespace> namespaces) {
+        this.dictionary = dictionary;
+        this.size = size;
+        this.subjects = subjects;
+        this.predicates = predicates;
+        this.objects = objects;
+        this.contexts = contexts;
+        this.subjectRanks = subjectRanks;
+        this.subjectOffsets = subjectOffsets;
+        this.subjectIndex = subjectIndex;
+        this.namespaces = namespaces;
+    }
+
+    public static CompactModel copyOf(Model model) {
+        if (model instanceof CompactModel) {
+            return (CompactModel) model;
+        }
+
+        Builder builder = new Builder();
+        model.getNamespaces().forEach(builder::addNamespace);
+        model.forEach(builder::add);
+        return builder.build();
+    }
+
+    @Override
+    public Iterator<Statement> iterator() {
+        return new MatchIterator(null, 0, size, NONE, NONE, null);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean contains(Resource subj, IRI pred, Value obj, Resource... contexts) {
+        return matchPattern(subj, pred, obj, contexts).hasNext();
+    }
+
+    @Override
+    public Model filter(Resource subj, IRI pred, Value obj, Resource... contexts) {
+        return new FilteredModel(this, subj, pred, obj, contexts) {
+
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            public Iterator<Statement> iterator() {
+                return matchPattern(subj, pred, obj, contexts);
+            }
+
+            @Override
+            protected void removeFilteredTermIteration(Iterator<Statement> iter, Resource subj, IRI pred, Value obj,
+                    Resource... contexts) {
+                throw new UnsupportedOperationException("CompactModel is read-only");
+            }
+        };
+    }
+
+    @Override
+    public Set<Namespace> getNamespaces() {
+        return Collections.unmodifiableSet(namespaces);
+    }
+
+    @Override
+    public Optional<Namespace> getNamespace(String prefix) {
+        return namespaces.stream()
+                .filter(namespace -> namespace.getPrefix().equals(prefix))
+                .findFirst();
+    }
+
+    @Override
+    public void setNamespace(Namespace namespace) {
+        throw new UnsupportedOperationException("CompactModel is read-only");
+    }
+
+    @Override
+    public Optional<Namespace> removeNamespace(String prefix) {
+        throw new UnsupportedOperationException("CompactModel is read-only");
+    }
+
+    @Override
+    public boolean add(Resource subj, IRI pred, Value obj, Resource... contexts) {
+        throw new UnsupportedOperationException("CompactModel is read-only");
+    }
+
+    @Override
+    public boolean remove(Resource subj, IRI pred, Value obj, Resource... contexts) {
+        throw new UnsupportedOperationException("CompactModel is read-only");
+    }
+
+    @Override
+    public boolean clear(Resource... contexts) {
+        throw new UnsupportedOperationException("CompactModel is read-only");
+    }
+
+    @Override
+    public void removeTermIteration(Iterator<Statement> iter, Resource subj, IRI pred, Value obj, Resource... contexts) {
+        throw new UnsupportedOperationException("CompactModel is read-only");
+    }
+
+    private Iterator<Statement> matchPattern(Resource subj, IRI pred, Value obj, Resource... contexts) {
+        int predicate = pred == null ? NONE : dictionary.lookup(pred);
+        int object = obj == null ? NONE : dictionary.lookup(obj);
+        if ((pred != null && predicate == NONE) || (obj != null && object == NONE)) {
+            return Collections.emptyIterator();
+        }
+
+        int[] contextIds = null;
+        if (contexts != null && contexts.length > 0) {
+            contextIds = new int[contexts.length];
+            for (int i = 0; i < contexts.length; i++) {
+                // unknown contexts can never match, NONE stands for the default graph
+                contextIds[i] = contexts[i] == null ? NONE : dictionary.lookup(contexts[i]);
+                if (contexts[i] != null && contextIds[i] == NONE) {
+                    contextIds[i] = Integer.MIN_VALUE;
+                }
+            }
+        }
+
+        if (subj == null) {
+            return new MatchIterator(null, 0, size, predicate, object, contextIds);
+        }
+
+        int subject = dictionary.lookup(subj);
+        if (subject == NONE || subjectRanks[subject] == NONE) {
+            return Collections.emptyIterator();
+        }
+
+        int rank = subjectRanks[subject];
+        return new MatchIterator(subjectIndex, subjectOffsets[rank], subjectOffsets[rank + 1], predicate, object,
+                contextIds);
+    }
+
+    private Statement createStatement(int position) {
+        Resource subj = (Resource) dictionary.get(subjects[position]);
+        IRI pred = (IRI) dictionary.get(predicates[position]);
+        Value obj = dictionary.get(objects[position]);
+
+        if (contexts == null || contexts[position] == NONE) {
+            return VF.createStatement(subj, pred, obj);
+        }
+        return VF.createStatement(subj, pred, obj, (Resource) dictionary.get(contexts[position]));
+    }
+
+    private class MatchIterator implements Iterator<Statement> {
+
+        private final int[] positions;
+
+        private final int end;
+
+        private final int predicate;
+
+        private final int object;
+
+        private final int[] contextIds;
+
+        private int cursor;
+
+        private int next = NONE;
+
+        private MatchIterator(int[] positions, int start, int end, int predicate, int object, int[] contextIds) {
+            this.positions = positions;
+            this.cursor = start;
+            this.end = end;
+            this.predicate = predicate;
+            this.object = object;
+            this.contextIds = contextIds;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (next == NONE && cursor < end) {
+                int position = positions == null ? cursor : positions[cursor];
+                cursor++;
+                if (matches(position)) {
+                    next = position;
+                }
+            }
+            return next != NONE;
+        }
+
+        @Override
+        public Statement next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            Statement statement = createStatement(next);
+            next = NONE;
+            return statement;
+        }
+
+        private boolean matches(int position) {
+            if (predicate != NONE && predicates[position] != predicate) {
+                return false;
+            }
+            if (object != NONE && objects[position] != object) {
+                return false;
+            }
+            if (contextIds == null) {
+                return true;
+            }
+
+            int context = contexts == null ? NONE : contexts[position];
+            for (int contextId : contextIds) {
+                if (contextId == context) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Collects statements for a {@link CompactModel}. Duplicate statements are dropped when building, keeping the
+     * first occurrence, so the result has the same contents and order as a LinkedHashModel filled the same way. A
+     * builder builds a single model.
+     */
+    public static class Builder extends AbstractRDFHandler {
+
+        private final ValueDictionary dictionary = new ValueDictionary();
+
+        private final Set<Namespace> namespaces = new LinkedHashSet<>();
+
+        private int[] subjects = new int[1024];
+
+        private int[] predicates = new int[1024];
+
+        private int[] objects = new int[1024];
+
+        private int[] contexts;
+
+        private int[] subjectRanks = new int[1024];
+
+        private int subjectCount;
+
+        private int size;
+
+        public Builder() {
+            Arrays.fill(subjectRanks, NONE);
+        }
+
+        public Builder add(Statement statement) {
+            if (size == subjects.length) {
+                int capacity = size + (size >> 1);
+                subjects = Arrays.copyOf(subjects, capacity);
+                predicates = Arrays.copyOf(predicates, capacity);
+                objects = Arrays.copyOf(objects, capacity);
+                if (contexts != null) {
+                    contexts = Arrays.copyOf(contexts, capacity);
+                }
+            }
+
+            int subject = dictionary.intern(statement.getSubject());
+            if (subject >= subjectRanks.length) {
+                int from = subjectRanks.length;
+                subjectRanks = Arrays.copyOf(subjectRanks, Math.max(subject + 1, from + (from >> 1)));
+                Arrays.fill(subjectRanks, from, subjectRanks.length, NONE);
+            }
+            if (subjectRanks[subject] == NONE) {
+                subjectRanks[subject] = subjectCount++;
+            }
+
+            subjects[size] = subject;
+            predicates[size] = dictionary.intern(statement.getPredicate());
+            objects[size] = dictionary.intern(statement.getObject());
+
+            if (statement.getContext() != null && contexts == null) {
+                contexts = new int[subjects.length];
+                Arrays.fill(contexts, NONE);
+            }
+            if (contexts != null) {
+                contexts[size] = statement.getContext() == null ? NONE : dictionary.intern(statement.getContext());
+            }
+
+            size++;
+            return this;
+        }
+
+        public Builder addAll(Collection<Statement> statements) {
+            statements.forEach(this::add);
+            return this;
+        }
+
+        public Builder addNamespace(Namespace namespace) {
+            namespaces.add(namespace);
+            return this;
+        }
+
+        @Override
+        public void handleStatement(Statement statement) {
+            add(statement);
+        }
+
+        @Override
+        public void handleNamespace(String prefix, String uri) {
+            addNamespace(new SimpleNamespace(prefix, uri));
+        }
+
+        public CompactModel build() {
+            int[] ranks = Arrays.copyOf(subjectRanks, dictionary.size());
+            for (int id = subjectRanks.length; id < ranks.length; id++) {
+                ranks[id] = NONE;
+            }
+
+            int[] offsets = new int[subjectCount + 1];
+            int[] index = indexBySubject(ranks, offsets);
+
+            BitSet duplicates = findDuplicates(index, offsets);
+            if (!duplicates.isEmpty()) {
+                removeDuplicates(duplicates);
+                index = indexBySubject(ranks, offsets);
+            }
+
+            dictionary.trim();
+            return new CompactModel(dictionary, size, Arrays.copyOf(subjects, size), Arrays.copyOf(predicates, size),
+                    Arrays.copyOf(objects, size), contexts == null ? null : Arrays.copyOf(contexts, size), ranks,
+                    offsets, index, new LinkedHashSet<>(namespaces));
+        }
+
+        // counting sort of statement positions on subject rank, keeping insertion order per subject
+        private int[] indexBySubject(int[] ranks, int[] offsets) {
+            Arrays.fill(offsets, 0);
+            for (int position = 0; position < size; position++) {
+                offsets[ranks[subjects[position]] + 1]++;
+            }
+            for (int rank = 0; rank < subjectCount; rank++) {
+                offsets[rank + 1] += offsets[rank];
+            }
+
+            int[] next = Arrays.copyOf(offsets, subjectCount);
+            int[] index = new int[size];
+            for (int position = 0; position < size; position++) {
+                index[next[ranks[subjects[position]]]++] = position;
+            }
+            return index;
+        }
+
+        private BitSet findDuplicates(int[] index, int[] offsets) {
+            BitSet duplicates = new BitSet(size);
+            Set<Triple> seen = new HashSet<>();
+
+            for (int rank = 0; rank < subjectCount; rank++) {
+                int start = offsets[rank];
+                int end = offsets[rank + 1];
+                if (end - start < 2) {
+                    continue;
+                }
+
+                seen.clear();
+                for (int i = start; i < end; i++) {
+                    int position = index[i];
+                    Triple triple = new Triple(predicates[position], objects[position],
+                            contexts == null ? NONE : contexts[position]);
+                    if (!seen.add(triple)) {
+                        duplicates.set(position);
+                    }
+                }
+            }
+            return duplicates;
+        }
+
+        private void removeDuplicates(BitSet duplicates) {
+            int kept = 0;
+            for (int position = 0; position < size; position++) {
+                if (duplicates.get(position)) {
+                    continue;
+                }
+                subjects[kept] = subjects[position];
+                predicates[kept] = predicates[position];
+                objects[kept] = objects[position];
+                if (contexts != null) {
+                    contexts[kept] = contexts[position];
+                }
+                kept++;
+            }
+            size = kept;
+        }
+    }
+
+    private static final class Triple {
+
+        private final int predicate;
+
+        private final int object;
+
+        private final int context;
+
+        private Triple(int predicate, int object, int context) {
+            this.predicate = predicate;
+            this.object = object;
+            this.context = context;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (!(other instanceof Triple)) {
+                return false;
+            }
+            Triple that = (Triple) other;
+            return predicate == that.predicate && object == that.object && context == that.context;
+        }
+
+        @Override
+        public int hashCode() {
+            return (31 * predicate + object) * 31 + context;
+        }
+    }
+
+    /**
+     * Interns values to dense int ids, using an open addressing hash table of ids instead of boxed map entries.
+     */
+    private static final class ValueDictionary implements java.io.Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        private Value[] values = new Value[1024];
+
+        private int[] table = new int[2048];
+
+        private int size;
+
+        int size() {
+            return size;
+        }
+
+        Value get(int id) {
+            return values[id];
+        }
+
+        int lookup(Value value) {
+            int mask = table.length - 1;
+            for (int slot = spread(value.hashCode()) & mask; table[slot] != 0; slot = (slot + 1) & mask) {
+                int id = table[slot] - 1;
+                if (values[id].equals(value)) {
+                    return id;
+                }
+            }
+            return NONE;
+        }
+
+        int intern(Value value) {
+            int mask = table.length - 1;
+            int slot = spread(value.hashCode()) & mask;
+            for (; table[slot] != 0; slot = (slot + 1) & mask) {
+                int id = table[slot] - 1;
+                if (values[id].equals(value)) {
+                    return id;
+                }
+            }
+
+            if (size == values.length) {
+                values = Arrays.copyOf(values, Math.max(16, size + (size >> 1)));
+            }
+            int id = size++;
+            values[id] = value;
+            table[slot] = id + 1;
+
+            // keep the table at most half full
+            if (size * 2 > table.length) {
+                rehash(table.length * 2);
+            }
+            return id;
+        }
+
+        void trim() {
+            values = Arrays.copyOf(values, size);
+        }
+
+        private void rehash(int capacity) {
+            int[] rehashed = new int[capacity];
+            int mask = capacity - 1;
+            for (int id = 0; id < size; id++) {
+                int slot = spread(values[id].hashCode()) & mask;
+                while (rehashed[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                rehashed[slot] = id + 1;
+            }
+            table = rehashed;
+        }
+
+        private static int spread(int hash) {
+            return hash ^ (hash >>> 16);
+        }
+    }
+}
@@ -1,6 +1,5 @@
 package com.skemu.rdf.util;
 
-import com.github.jsonldjava.shaded.com.google.common.collect.ImmutableList;
 import java.net.URISyntaxException;
 import java.util.Arrays;
 import java.util.HashSet;
@@ -8,15 +7,11 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
-import java.util.function.UnaryOperator;
-import java.util.stream.Collectors;
-import javax.swing.text.html.Option;
+import java.util.function.BiFunction;
 import org.eclipse.rdf4j.common.net.ParsedIRI;
 import org.eclipse.rdf4j.model.IRI;
 import org.eclipse.rdf4j.model.Model;
 import org.eclipse.rdf4j.model.Resource;
-import org.eclipse.rdf4j.model.Statement;
-import org.eclipse.rdf4j.model.Value;
 import org.eclipse.rdf4j.model.ValueFactory;
 import org.eclipse.rdf4j.model.impl.ValidatingValueFactory;
 
@@ -24,94 +19,59 @@ public class ModelUtil {
 
     private static final ValueFactory VF = new ValidatingValueFactory();
 
-    private ModelUtil() {}
-
-    public static Set<Resource> getFirstResourcesInPropertyChain(Model model, String operator, IRI... predicates) {
-        // TODO: validate operator
-
-        List<IRI> predicateList = Arrays.asList(predicates);
+    private static final String ZERO_OR_MORE = "*";
 
-        Set<Resource> resources = new HashSet<>();
-        Set<Resource> subjectsWithPredicate = model.stream()
-                .filter(statement -> predicateList.contains(statement.getPredicate()))
-                .map(Statement::getSubject)
-                .collect(Collectors.toSet());
-
-        if (operator.equals("*")) {
-            Set<Resource> subjects = model.subjects();
-            subjects.removeAll(subjectsWithPredicate);
+    private static final String ONE_OR_MORE = "+";
 
-            resources.addAll(subjects);
-        }
-
-        subjectsWithPredicate.stream()
-                .flatMap(subject -> getFirstResourcesInPropertyChain(model, subject, predicates).stream())
-                .forEach(resources::add);
+    private ModelUtil() {}
 
-        return resources;
+    /**
+     * Resources at the start of the chains of the given predicates. With operator {@code +} only resources with one of
+     * the predicates are followed, with {@code *} subjects without any of the predicates count as chains of length zero.
+     */
+    public static Set<Resource> getFirstResourcesInPropertyChain(Model model, String operator, IRI... predicates) {
+        return getResourcesInPropertyChain(model, operator, predicates, PropertyChain::getFirstResources);
     }
 
     public static Set<Resource> getFirstResourcesInPropertyChain(Model model, Resource start, IRI... predicates) {
-        // TODO: support operator?
-        List<IRI> predicateList = Arrays.asList(predicates);
-
-        Set<Resource> earlierInChain = model.stream()
-                .filter(statement -> predicateList.contains(statement.getPredicate()) && start.equals(statement.getObject()))
-                .map(Statement::getSubject)
-                .collect(Collectors.toSet());
-
-        if (earlierInChain.isEmpty()) {
-            return Set.of(start);
-        }
-
-        return earlierInChain.stream()
-                .flatMap(resource -> getFirstResourcesInPropertyChain(model, resource, predicates).stream())
-                .collect(Collectors.toSet());
+        return new HashSet<>(PropertyChain.of(model, Arrays.asList(predicates)).getFirstResources(start));
     }
 
+    /**
+     * Resources at the end of the chains of the given predicates, with the operators of
+     * {@link #getFirstResourcesInPropertyChain(Model, String, IRI...)}.
+     */
     public static Set<Resource> getLastResourcesInPropertyChain(Model model, String operator, IRI... predicates) {
-        // TODO: validate operator
+        return getResourcesInPropertyChain(model, operator, predicates, PropertyChain::getLastResources);
+    }
 
-        List<IRI> predicateList = Arrays.asList(predicates);
+    public static Set<Resource> getLastResourcesInPropertyChain(Model model, Resource start, IRI... predicates) {
+        return new HashSet<>(PropertyChain.of(model, Arrays.asList(predicates)).getLastResources(start));
+    }
 
+    private static Set<Resource> getResourcesInPropertyChain(Model model, String operator, IRI[] predicates,
+            BiFunction<PropertyChain, Resource, Set<Resource>> ends) {
+        if (!ZERO_OR_MORE.equals(operator) && !ONE_OR_MORE.equals(operator)) {
+            throw new IllegalArgumentException(String.format("Unsupported property chain operator [%s], expected [%s] or [%s]",
+                    operator, ZERO_OR_MORE, ONE_OR_MORE));
+        }
+
+        PropertyChain chain = PropertyChain.of(model, Arrays.asList(predicates));
         Set<Resource> resources = new HashSet<>();
-        Set<Resource> subjectsWithPredicate = model.stream()
-                .filter(statement -> predicateList.contains(statement.getPredicate()))
-                .map(Statement::getSubject)
-                .collect(Collectors.toSet());
 
-        if (operator.equals("*")) {
-            Set<Resource> subjects = model.subjects();
-            subjects.removeAll(subjectsWithPredicate);
+        if (operator.equals(ZERO_OR_MORE)) {
+            // a copy, removing from the subjects view would remove statements from the model
+            Set<Resource> subjects = new HashSet<>(model.subjects());
+            subjects.removeAll(chain.getSubjects());
 
             resources.addAll(subjects);
         }
 
-        subjectsWithPredicate.stream()
-                .flatMap(subject -> getLastResourcesInPropertyChain(model, subject, predicates).stream())
-                .forEach(resources::add);
-
-        return resources;
-    }
-
-    public static Set<Resource> getLastResourcesInPropertyChain(Model model, Resource start, IRI... predicates) {
-        // TODO: support operator?
-        List<IRI> predicateList = Arrays.asList(predicates);
-
-        Set<Value> laterInChain =  model.stream()
-                .filter(statement -> predicateList.contains(statement.getPredicate()) && start.equals(statement.getSubject()))
-                .map(Statement::getObject)
-                .collect(Collectors.toSet());
-
-        if (laterInChain.isEmpty()) {
-            return Set.of(start);
+        for (Resource subject : chain.getSubjects()) {
+            resources.addAll(ends.apply(chain, subject));
         }
 
-        return laterInChain.stream()
-                .filter(Resource.class::isInstance)
-                .map(Resource.class::cast)
-                .flatMap(resource -> getLastResourcesInPropertyChain(model, resource, predicates).stream())
-                .collect(Collectors.toSet());
+        return resources;
     }
 
     public static Optional<IRI> resolveIri(String iri, Map<String, String> namespaces) {
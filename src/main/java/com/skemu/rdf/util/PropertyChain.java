@@ -0,0 +1,201 @@
+package com.skemu.rdf.util;
+
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import org.eclipse.rdf4j.model.IRI;
+import org.eclipse.rdf4j.model.Model;
+import org.eclipse.rdf4j.model.Resource;
+import org.eclipse.rdf4j.model.Statement;
+import org.eclipse.rdf4j.model.Value;
+
+/**
+ * Adjacency view of the statements with one of a set of predicates, for following chains of those predicates. The
+ * view is built with one indexed filter per predicate.
+ *
+ * <p>The first resources of a chain through a resource are those reached by following the predicates backwards until
+ * there is nothing left to follow, the last resources likewise forwards. Resources on a cycle are grouped in strongly
+ * connected components: a cycle without a way out counts as the end of the chain, and all of its resources are
+ * returned. Ends are memoized per component, so shared parts of chains are only walked once, and the walk uses an
+ * explicit stack. Literal objects do not continue a chain.
+ */
+public class PropertyChain {
+
+    private final Set<Resource> subjects;
+
+    private final Ends first;
+
+    private final Ends last;
+
+    private PropertyChain(Set<Resource> subjects, Map<Resource, Set<Resource>> successors,
+            Map<Resource, Set<Resource>> predecessors) {
+        this.subjects = subjects;
+        this.first = new Ends(predecessors);
+        this.last = new Ends(successors);
+    }
+
+    public static PropertyChain of(Model model, Collection<IRI> predicates) {
+        Set<Resource> subjects = new LinkedHashSet<>();
+        Map<Resource, Set<Resource>> successors = new HashMap<>();
+        Map<Resource, Set<Resource>> predecessors = new HashMap<>();
+
+        for (IRI predicate : new LinkedHashSet<>(predicates)) {
+            for (Statement statement : model.filter(null, predicate, null)) {
+                Resource subject = statement.getSubject();
+                subjects.add(subject);
+
+                Value object = statement.getObject();
+                if (object instanceof Resource) {
+                    successors.computeIfAbsent(subject, key -> new LinkedHashSet<>()).add((Resource) object);
+                    predecessors.computeIfAbsent((Resource) object, key -> new LinkedHashSet<>()).add(subject);
+                }
+            }
+        }
+
+        return new PropertyChain(subjects, successors, predecessors);
+    }
+
+    /**
+     * @return the subjects of the statements with one of the predicates
+     */
+    public Set<Resource> getSubjects() {
+        return Collections.unmodifiableSet(subjects);
+    }
+
+    public Set<Resource> getFirstResources(Resource start) {
+        return first.get(start);
+    }
+
+    public Set<Resource> getLastResources(Resource start) {
+        return last.get(start);
+    }
+
+    /**
+     * Ends of chains in one direction, computed with Tarjan's strongly connected components algorithm. Components are
+     * completed after every component they lead to, so the ends of a component are the union of the ends of the
+     * components it leads to, or its own resources when it leads nowhere.
+     */
+    private static class Ends {
+
+        private final Map<Resource, Set<Resource>> edges;
+
+        private final Map<Resource, Integer> index = new HashMap<>();
+
+        private final Map<Resource, Integer> lowLink = new HashMap<>();
+
+        private final Deque<Resource> stack = new ArrayDeque<>();
+
+        private final Set<Resource> onStack = new HashSet<>();
+
+        private final Map<Resource, Set<Resource>> endsByResource = new HashMap<>();
+
+        private int visited;
+
+        Ends(Map<Resource, Set<Resource>> edges) {
+            this.edges = edges;
+        }
+
+        Set<Resource> get(Resource start) {
+            if (!endsByResource.containsKey(start)) {
+                compute(start);
+            }
+            return endsByResource.get(start);
+        }
+
+        private void compute(Resource start) {
+            Deque<Frame> frames = new ArrayDeque<>();
+            frames.push(visit(start));
+
+            while (!frames.isEmpty()) {
+                Frame frame = frames.peek();
+                if (frame.next.hasNext()) {
+                    Resource next = frame.next.next();
+                    if (endsByResource.containsKey(next)) {
+                        // part of a completed component
+                        continue;
+                    }
+                    if (!index.containsKey(next)) {
+                        frames.push(visit(next));
+                    } else if (onStack.contains(next)) {
+                        lowLink.merge(frame.resource, index.get(next), Math::min);
+                    }
+                    continue;
+                }
+
+                frames.pop();
+                int low = lowLink.get(frame.resource);
+                if (low == index.get(frame.resource)) {
+                    completeComponent(frame.resource);
+                } else {
+                    lowLink.merge(frames.peek().resource, low, Math::min);
+                }
+            }
+        }
+
+        private Frame visit(Resource resource) {
+            index.put(resource, visited++);
+            lowLink.put(resource, index.get(resource));
+            stack.push(resource);
+            onStack.add(resource);
+            return new Frame(resource, edges.getOrDefault(resource, Set.of()).iterator());
+        }
+
+        private void completeComponent(Resource root) {
+            Set<Resource> component = new LinkedHashSet<>();
+            Resource member;
+            do {
+                member = stack.pop();
+                onStack.remove(member);
+                component.add(member);
+            } while (!member.equals(root));
+
+            // ends of the components this one leads to, all completed already
+            Set<Set<Resource>> leadsTo = Collections.newSetFromMap(new IdentityHashMap<>());
+            for (Resource resource : component) {
+                for (Resource next : edges.getOrDefault(resource, Set.of())) {
+                    if (!component.contains(next)) {
+                        leadsTo.add(endsByResource.get(next));
+                    }
+                }
+            }
+
+            Set<Resource> ends;
+            if (leadsTo.isEmpty()) {
+                ends = Collections.unmodifiableSet(component);
+            } else if (leadsTo.size() == 1) {
+                ends = leadsTo.iterator().next();
+            } else {
+                Set<Resource> union = new LinkedHashSet<>();
+                leadsTo.forEach(union::addAll);
+                ends = Collections.unmodifiableSet(union);
+            }
+
+            // completed resources are recognized by their ends from now on
+            for (Resource resource : component) {
+                endsByResource.put(resource, ends);
+                index.remove(resource);
+                lowLink.remove(resource);
+            }
+        }
+    }
+
+    private static class Frame {
+
+        private final Resource resource;
+
+        private final Iterator<Resource> next;
+
+        Frame(Resource resource, Iterator<Resource> next) {
+            this.resource = resource;
+            this.next = next;
+        }
+    }
+}
@@ -1,35 +1,120 @@
 package com.skemu.rdf.util;
 
+import java.io.BufferedInputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.function.Predicate;
 import org.eclipse.rdf4j.model.Model;
+import org.eclipse.rdf4j.model.Statement;
 import org.eclipse.rdf4j.model.ValueFactory;
+import org.eclipse.rdf4j.model.impl.LinkedHashModel;
 import org.eclipse.rdf4j.model.impl.SimpleValueFactory;
 import org.eclipse.rdf4j.rio.ParserConfig;
 import org.eclipse.rdf4j.rio.RDFFormat;
+import org.eclipse.rdf4j.rio.RDFHandler;
+import org.eclipse.rdf4j.rio.RDFParser;
 import org.eclipse.rdf4j.rio.Rio;
 import org.eclipse.rdf4j.rio.helpers.BasicParserSettings;
+import org.eclipse.rdf4j.rio.helpers.ContextStatementCollector;
 import org.eclipse.rdf4j.rio.helpers.ParseErrorLogger;
+import org.eclipse.rdf4j.rio.helpers.RDFHandlerWrapper;
 
 public class RdfIoUtil {
 
     private static final ValueFactory VF = SimpleValueFactory.getInstance();
 
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private static final byte[] BINARY_RDF_MAGIC = "BRDF".getBytes(StandardCharsets.US_ASCII);
+
+    /**
+     * Determines the format of a file by its extension. Files with an unknown extension are recognized as binary RDF
+     * by their content, and read as Turtle otherwise, which covers N-Triples as well.
+     */
+    public static RDFFormat detectFormat(Path path) {
+        Optional<RDFFormat> byExtension = Rio.getParserFormatForFileName(path.getFileName().toString());
+        if (byExtension.isPresent()) {
+            return byExtension.get();
+        }
+
+        try (InputStream input = Files.newInputStream(path)) {
+            byte[] header = input.readNBytes(BINARY_RDF_MAGIC.length);
+            return Arrays.equals(header, BINARY_RDF_MAGIC) ? RDFFormat.BINARY : RDFFormat.TURTLE;
+        } catch (IOException e) {
+            throw new RuntimeException(String.format("failed to detect format of file [%s]", path), e);
+        }
+    }
+
     public static Model read(File file, RDFFormat format) {
-        try (InputStream input = new FileInputStream(file)) {
-            return read(input, format);
+        return read(file, format, statement -> true);
+    }
+
+    /**
+     * Parses a file, keeping only the statements accepted by the given filter. Statements are filtered while parsing,
+     * so rejected statements never end up in memory.
+     */
+    public static Model read(File file, RDFFormat format, Predicate<Statement> filter) {
+        try (InputStream input = new BufferedInputStream(new FileInputStream(file), BUFFER_SIZE)) {
+            return read(input, format, filter);
         } catch (IOException e) {
             throw new RuntimeException(String.format("failed to parse file [%s] as [%s]", file, format), e);
         }
     }
 
     public static Model read(InputStream inputStream, RDFFormat format) {
+        return read(inputStream, format, statement -> true);
+    }
+
+    public static Model read(InputStream inputStream, RDFFormat format, Predicate<Statement> filter) {
+        Model model = new LinkedHashModel();
+        parse(inputStream, format, filter, new ContextStatementCollector(model, VF));
+        return model;
+    }
+
+    /**
+     * Parses a file into the given handler. Large N-Triples and N-Quads files are split and parsed on several cores.
+     */
+    public static void parse(File file, RDFFormat format, Predicate<Statement> filter, RDFHandler handler) {
+        if (ChunkedLineParser.supports(format) && file.length() > ChunkedLineParser.DEFAULT_CHUNK_SIZE) {
+            ChunkedLineParser.parse(file.toPath(), format, filter, handler);
+            return;
+        }
+
+        try (InputStream input = new BufferedInputStream(new FileInputStream(file), BUFFER_SIZE)) {
+            parse(input, format, filter, handler);
+        } catch (IOException e) {
+            throw new RuntimeException(String.format("failed to parse file [%s] as [%s]", file, format), e);
+        }
+    }
+
+    /**
+     * Parses into the given handler, passing on only the statements accepted by the filter.
+     */
+    public static void parse(InputStream inputStream, RDFFormat format, Predicate<Statement> filter, RDFHandler handler) {
         try (InputStream is = inputStream) {
             ParserConfig settings = new ParserConfig();
             settings.set(BasicParserSettings.PRESERVE_BNODE_IDS, true);
-            return Rio.parse(is, "http://none.com/", format, settings, VF, new ParseErrorLogger());
+
+            RDFParser parser = Rio.createParser(format, VF);
+            parser.setParserConfig(settings);
+            parser.setParseErrorListener(new ParseErrorLogger());
+            parser.setRDFHandler(new RDFHandlerWrapper(handler) {
+
+                @Override
+                public void handleStatement(Statement statement) {
+                    if (filter.test(statement)) {
+                        super.handleStatement(statement);
+                    }
+                }
+            });
+            parser.parse(is, "http://none.com/");
         } catch (IOException e) {
             throw new RuntimeException(String.format("failed to parse input stream [%s] as [%s]", inputStream, format), e);
         }
@@ -0,0 +1,156 @@
+package com.skemu.rdf.util;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import org.eclipse.rdf4j.common.iteration.Iterations;
+import org.eclipse.rdf4j.model.IRI;
+import org.eclipse.rdf4j.model.Model;
+import org.eclipse.rdf4j.model.Namespace;
+import org.eclipse.rdf4j.model.Resource;
+import org.eclipse.rdf4j.model.Statement;
+import org.eclipse.rdf4j.model.Value;
+import org.eclipse.rdf4j.model.impl.AbstractModel;
+import org.eclipse.rdf4j.model.impl.FilteredModel;
+import org.eclipse.rdf4j.repository.Repository;
+import org.eclipse.rdf4j.repository.RepositoryConnection;
+import org.eclipse.rdf4j.repository.RepositoryResult;
+
+/**
+ * Read-only {@link Model} view of a {@link Repository}. Nothing is kept in memory between iterations: every iteration
+ * of the model, or of a filter on it, is a {@code getStatements} call answered from the indexes of the repository, on a
+ * connection of its own, so the view can be iterated from several threads.
+ *
+ * <p>{@link #forEach(Consumer)} streams the statements of a call and closes its connection when it returns or throws.
+ * An iterator cannot tell when it is abandoned, so iterators read the statements of a call into a list and close the
+ * connection before the iteration starts. Use {@code forEach} for filters that match many statements.
+ */
+public class RepositoryModel extends AbstractModel {
+
+    private static final long serialVersionUID = 1L;
+
+    private final transient Repository repository;
+
+    private RepositoryModel(Repository repository) {
+        this.repository = repository;
+    }
+
+    /**
+     * @param repository an initialized repository, which stays owned by the caller
+     */
+    public static RepositoryModel of(Repository repository) {
+        return new RepositoryModel(repository);
+    }
+
+    @Override
+    public Iterator<Statement> iterator() {
+        return matchPattern(null, null, null);
+    }
+
+    @Override
+    public void forEach(Consumer<? super Statement> action) {
+        forEachMatch(action, null, null, null);
+    }
+
+    @Override
+    public int size() {
+        try (RepositoryConnection connection = repository.getConnection()) {
+            return (int) Math.min(Integer.MAX_VALUE, connection.size());
+        }
+    }
+
+    @Override
+    public boolean contains(Resource subj, IRI pred, Value obj, Resource... contexts) {
+        try (RepositoryConnection connection = repository.getConnection()) {
+            return connection.hasStatement(subj, pred, obj, false, contexts);
+        }
+    }
+
+    @Override
+    public Model filter(Resource subj, IRI pred, Value obj, Resource... contexts) {
+        return new FilteredModel(this, subj, pred, obj, contexts) {
+
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            public Iterator<Statement> iterator() {
+                return matchPattern(subj, pred, obj, contexts);
+            }
+
+            @Override
+            public void forEach(Consumer<? super Statement> action) {
+                forEachMatch(action, subj, pred, obj, contexts);
+            }
+
+            @Override
+            protected void removeFilteredTermIteration(Iterator<Statement> iter, Resource subj, IRI pred, Value obj,
+                    Resource... contexts) {
+                throw new UnsupportedOperationException("RepositoryModel is read-only");
+            }
+        };
+    }
+
+    @Override
+    public Set<Namespace> getNamespaces() {
+        try (RepositoryConnection connection = repository.getConnection()) {
+            return Iterations.asSet(connection.getNamespaces());
+        }
+    }
+
+    @Override
+    public Optional<Namespace> getNamespace(String prefix) {
+        return getNamespaces().stream()
+                .filter(namespace -> namespace.getPrefix().equals(prefix))
+                .findFirst();
+    }
+
+    @Override
+    public void setNamespace(Namespace namespace) {
+        throw new UnsupportedOperationException("RepositoryModel is read-only");
+    }
+
+    @Override
+    public Optional<Namespace> removeNamespace(String prefix) {
+        throw new UnsupportedOperationException("RepositoryModel is read-only");
+    }
+
+    @Override
+    public boolean add(Resource subj, IRI pred, Value obj, Resource... contexts) {
+        throw new UnsupportedOperationException("RepositoryModel is read-only");
+    }
+
+    @Override
+    public boolean remove(Resource subj, IRI pred, Value obj, Resource... contexts) {
+        throw new UnsupportedOperationException("RepositoryModel is read-only");
+    }
+
+    @Override
+    public boolean clear(Resource... contexts) {
+        throw new UnsupportedOperationException("RepositoryModel is read-only");
+    }
+
+    @Override
+    public void removeTermIteration(Iterator<Statement> iter, Resource subj, IRI pred, Value obj, Resource... contexts) {
+        throw new UnsupportedOperationException("RepositoryModel is read-only");
+    }
+
+    private void forEachMatch(Consumer<? super Statement> action, Resource subj, IRI pred, Value obj,
+            Resource... contexts) {
+        try (RepositoryConnection connection = repository.getConnection();
+                RepositoryResult<Statement> result = connection.getStatements(subj, pred, obj, false, contexts)) {
+            while (result.hasNext()) {
+                action.accept(result.next());
+            }
+        }
+    }
+
+    // the connection is closed before the statements are returned, so abandoned iterations and failures leak nothing
+    private Iterator<Statement> matchPattern(Resource subj, IRI pred, Value obj, Resource... contexts) {
+        try (RepositoryConnection connection = repository.getConnection();
+                RepositoryResult<Statement> result = connection.getStatements(subj, pred, obj, false, contexts)) {
+            return Collections.unmodifiableList(Iterations.asList(result)).iterator();
+        }
+    }
+}
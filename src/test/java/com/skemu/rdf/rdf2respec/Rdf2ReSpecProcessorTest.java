@@ -0,0 +1,126 @@
+package com.skemu.rdf.rdf2respec;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.skemu.rdf.rdf2respec.sources.Source;
+import com.skemu.rdf.rdf2respec.sources.Sources;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class Rdf2ReSpecProcessorTest {
+
+    private static final Path SAMPLE = Paths.get("src/test/resources/sample");
+
+    @TempDir
+    Path directory;
+
+    private final MeterRegistry registry = new SimpleMeterRegistry();
+
+    @BeforeEach
+    void addRegistry() {
+        Metrics.addRegistry(registry);
+    }
+
+    @AfterEach
+    void removeRegistry() {
+        Metrics.removeRegistry(registry);
+    }
+
+    @Test
+    void recordsGeneratedAndFailedFiles() throws IOException {
+        Path input = Files.createDirectories(directory.resolve("in"));
+        Path valid = Files.copy(SAMPLE.resolve("a.ttl"), input.resolve("valid.ttl"));
+        Path invalid = Files.writeString(input.resolve("invalid.ttl"), "this is not turtle");
+        Rdf2ReSpecProcessor processor = Rdf2ReSpecProcessor.of(sample(input));
+
+        processor.serialize(valid);
+        assertThrows(RuntimeException.class, () -> processor.serialize(invalid));
+
+        assertEquals(1, fileCount(input, "success"));
+        assertEquals(1, fileCount(input, "failure"));
+    }
+
+    @Test
+    void deletesOnlyTheShardsItWrote() throws IOException {
+        Path input = Files.createDirectories(directory.resolve("in"));
+        Path output = Files.createDirectories(directory.resolve("out"));
+        Files.copy(SAMPLE.resolve("a.ttl"), input.resolve("a.ttl"));
+        Source source = sample(input);
+        source.setOutputLocation(output.toString());
+        source.setShardDepth(2);
+
+        Rdf2ReSpecProcessor.of(source).serializeToFileSystem();
+        Path shards = output.resolve("a.shards");
+        assertTrue(Files.isRegularFile(shards.resolve("mammal.md")));
+        assertTrue(Files.isRegularFile(shards.resolve("bird.md")));
+        Path handWritten = Files.writeString(shards.resolve("notes.md"), "notes");
+
+        // the bird is no longer below the animal, so it is a root of its own
+        Files.writeString(input.resolve("a.ttl"), Files.readString(SAMPLE.resolve("a.ttl"))
+                .replace("ex:Bird skos:broader ex:Animal ;", "ex:Bird"));
+        Rdf2ReSpecProcessor.of(source).serializeToFileSystem();
+        assertTrue(Files.isRegularFile(shards.resolve("mammal.md")));
+        assertFalse(Files.exists(shards.resolve("bird.md")));
+        assertTrue(Files.isRegularFile(handWritten));
+
+        Files.delete(input.resolve("a.ttl"));
+        Rdf2ReSpecProcessor.of(source).serializeToFileSystem(List.of(input.resolve("a.ttl")));
+        assertFalse(Files.exists(output.resolve("a.md")));
+        assertFalse(Files.exists(shards.resolve("mammal.md")));
+        assertEquals(List.of(handWritten), list(shards));
+    }
+
+    @Test
+    void leavesDirectoriesNextToUnshardedOutputsAlone() throws IOException {
+        Path input = Files.createDirectories(directory.resolve("in"));
+        Path output = Files.createDirectories(directory.resolve("out"));
+        Files.copy(SAMPLE.resolve("a.ttl"), input.resolve("a.ttl"));
+        Path handWritten = Files.writeString(Files.createDirectories(output.resolve("a")).resolve("notes.md"), "notes");
+        Source source = sample(input);
+        source.setOutputLocation(output.toString());
+
+        Rdf2ReSpecProcessor.of(source).serializeToFileSystem();
+        Files.delete(input.resolve("a.ttl"));
+        Rdf2ReSpecProcessor.of(source).serializeToFileSystem(List.of(input.resolve("a.ttl")));
+
+        assertFalse(Files.exists(output.resolve("a.md")));
+        assertTrue(Files.isRegularFile(handWritten));
+    }
+
+    private static List<Path> list(Path directory) throws IOException {
+        try (Stream<Path> paths = Files.list(directory)) {
+            return paths.collect(Collectors.toList());
+        }
+    }
+
+    private long fileCount(Path input, String outcome) {
+        return registry.get("rdf2respec.file")
+                .tags("source", input.toString(), "outcome", outcome)
+                .timer()
+                .count();
+    }
+
+    static Source sample(Path input) {
+        Source source = YamlConfigReader.parseYamlConfig(Paths.get("src/test/resources/sample.yml"), Sources.class)
+                .orElseThrow()
+                .getSources()
+                .get(0);
+        source.setInputLocation(input.toString());
+        return source;
+    }
+}
@@ -0,0 +1,191 @@
+package com.skemu.rdf.rdf2respec;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.skemu.rdf.rdf2respec.respecmapping.SharedSubtrees;
+import com.skemu.rdf.rdf2respec.sources.Source;
+import com.skemu.rdf.rdf2respec.sources.Sources;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+/**
+ * Renders resources with the same title, and checks every link against the ids ReSpec gives the headings: duplicates
+ * get a numbered suffix in document order.
+ */
+class SectionAnchorTest {
+
+    private static final Pattern HEADING = Pattern.compile("^#+ (.*)$");
+
+    private static final Pattern LINK = Pattern.compile("\\[([^\\]]*)]\\(([^)#]*)#([^)]*)\\)");
+
+    // the rendered bat links to its own wing, the one of the bird, and the claw they share
+    private static final String WINGS = String.join("\n",
+            "@prefix skos: <http://www.w3.org/2004/02/skos/core#> .",
+            "@prefix rdfs: <http://www.w3.org/2000/01/rdf-schema#> .",
+            "@prefix ex: <http://example.org/> .",
+            "ex:Unrendered skos:prefLabel \"Wing\" ; skos:definition \"Never rendered\" .",
+            "ex:Animal skos:prefLabel \"Animal\" .",
+            "ex:BirdWing skos:prefLabel \"Wing\" ; skos:definition \"Feathered\" .",
+            "ex:Bat skos:broader ex:Animal ; skos:prefLabel \"Bat\" ; rdfs:seeAlso ex:BatWing, ex:BirdWing, ex:Claw .",
+            "ex:Bird skos:broader ex:Animal ; skos:prefLabel \"Bird\" ; rdfs:seeAlso ex:Claw .",
+            "ex:BirdWing skos:broader ex:Bird .",
+            "ex:BatWing skos:broader ex:Bat ; skos:prefLabel \"Wing\" ; skos:definition \"Membrane\" .",
+            "ex:Claw skos:broader ex:Bat, ex:Bird ; skos:prefLabel \"Claw\" ; skos:definition \"Sharp\" ;"
+                    + " rdfs:seeAlso ex:BirdWing .",
+            "");
+
+    @TempDir
+    Path directory;
+
+    @ParameterizedTest
+    @EnumSource(SharedSubtrees.class)
+    void linksPointAtTheHeadingOfTheResource(SharedSubtrees sharing) throws IOException {
+        Map<Path, List<Heading>> documents = render(sharing, 0);
+
+        assertLinksResolve(documents);
+        assertEquals(List.of("Membrane", "Feathered", "Sharp"), seeAlsoDefinitions(documents, "Bat"));
+    }
+
+    @ParameterizedTest
+    @EnumSource(SharedSubtrees.class)
+    void linksBetweenShardsPointAtTheHeadingOfTheResource(SharedSubtrees sharing) throws IOException {
+        Map<Path, List<Heading>> documents = render(sharing, 2);
+
+        assertTrue(documents.size() > 1);
+        assertLinksResolve(documents);
+        assertEquals(List.of("Membrane", "Feathered", "Sharp"), seeAlsoDefinitions(documents, "Bat"));
+    }
+
+    private Map<Path, List<Heading>> render(SharedSubtrees sharing, int shardDepth) throws IOException {
+        Path input = Files.createDirectories(directory.resolve("in"));
+        Files.writeString(input.resolve("wings.ttl"), WINGS);
+        Path output = Files.createDirectories(directory.resolve("out"));
+
+        Source source = YamlConfigReader.parseYamlConfig(Paths.get("src/test/resources/sample.yml"), Sources.class)
+                .orElseThrow()
+                .getSources()
+                .get(0);
+        source.setInputLocation(input.toString());
+        source.setOutputLocation(output.toString());
+        source.setShardDepth(shardDepth);
+        source.getReSpecMapping().getHierarchicalRelation().setSharedSubtrees(sharing);
+        Rdf2ReSpecProcessor.of(source).serializeToFileSystem();
+
+        Map<Path, List<Heading>> documents = new HashMap<>();
+        try (Stream<Path> files = Files.walk(output)) {
+            for (Path file : files.filter(file -> file.toString().endsWith(".md")).collect(Collectors.toList())) {
+                documents.put(file.toAbsolutePath().normalize(), parse(file));
+            }
+        }
+        return documents;
+    }
+
+    private static void assertLinksResolve(Map<Path, List<Heading>> documents) {
+        documents.forEach((file, headings) -> {
+            for (Heading heading : headings) {
+                for (Link link : heading.links) {
+                    Heading target = resolve(documents, file, link);
+                    assertNotNull(target, "no heading for " + link.text + " at " + link.document + "#" + link.id);
+                    assertEquals(link.text, target.text);
+                }
+            }
+        });
+    }
+
+    private static List<String> seeAlsoDefinitions(Map<Path, List<Heading>> documents, String title) {
+        List<String> definitions = new ArrayList<>();
+        documents.forEach((file, headings) -> headings.stream()
+                .filter(heading -> heading.text.equals(title))
+                .findFirst()
+                .ifPresent(heading -> heading.links.forEach(link -> definitions.add(
+                        resolve(documents, file, link).definition))));
+        return definitions;
+    }
+
+    private static Heading resolve(Map<Path, List<Heading>> documents, Path file, Link link) {
+        Path target = link.document.isEmpty() ? file : file.resolveSibling(link.document).normalize();
+        return documents.getOrDefault(target, List.of()).stream()
+                .filter(heading -> heading.id.equals(link.id))
+                .findFirst()
+                .orElse(null);
+    }
+
+    // headings with the ids ReSpec gives them, and the definition and links of their section
+    private static List<Heading> parse(Path file) throws IOException {
+        List<Heading> headings = new ArrayList<>();
+        Set<String> ids = new HashSet<>();
+        for (String line : Files.readAllLines(file)) {
+            Matcher heading = HEADING.matcher(line);
+            if (heading.matches()) {
+                String id = SectionIndex.toAnchor(heading.group(1));
+                String duplicate = id;
+                for (int suffix = 0; !ids.add(id); suffix++) {
+                    id = duplicate + "-" + suffix;
+                }
+                headings.add(new Heading(heading.group(1), id));
+                continue;
+            }
+            if (headings.isEmpty()) {
+                continue;
+            }
+
+            Heading current = headings.get(headings.size() - 1);
+            if (line.startsWith("**Definition**: ")) {
+                current.definition = line.substring("**Definition**: ".length());
+            }
+            Matcher link = LINK.matcher(line);
+            while (link.find()) {
+                current.links.add(new Link(link.group(1), link.group(2), link.group(3)));
+            }
+        }
+        return headings;
+    }
+
+    private static class Heading {
+
+        private final String text;
+
+        private final String id;
+
+        private final List<Link> links = new ArrayList<>();
+
+        private String definition;
+
+        Heading(String text, String id) {
+            this.text = text;
+            this.id = id;
+        }
+    }
+
+    private static class Link {
+
+        private final String text;
+
+        private final String document;
+
+        private final String id;
+
+        Link(String text, String document, String id) {
+            this.text = text;
+            this.document = document;
+            this.id = id;
+        }
+    }
+}
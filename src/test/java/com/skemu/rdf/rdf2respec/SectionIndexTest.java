@@ -0,0 +1,98 @@
+package com.skemu.rdf.rdf2respec;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.List;
+import java.util.Random;
+import org.eclipse.rdf4j.model.IRI;
+import org.eclipse.rdf4j.model.Model;
+import org.eclipse.rdf4j.model.ValueFactory;
+import org.eclipse.rdf4j.model.impl.LinkedHashModel;
+import org.eclipse.rdf4j.model.impl.SimpleValueFactory;
+import org.eclipse.rdf4j.model.vocabulary.SKOS;
+import org.junit.jupiter.api.Test;
+
+class SectionIndexTest {
+
+    private static final ValueFactory VF = SimpleValueFactory.getInstance();
+
+    private static final String EX = "http://example.org/";
+
+    // the characters the anchor rules treat specially, and some that they keep
+    private static final String TITLE_CHARACTERS = "(,'\"!@#$%^&*;:) \t\n\u000B\f\r  aZ09-_.é中";
+
+    private final IRI first = VF.createIRI(EX, "first");
+
+    private final IRI second = VF.createIRI(EX, "second");
+
+    private final IRI unrendered = VF.createIRI(EX, "unrendered");
+
+    private final IRI untitled = VF.createIRI(EX, "Wing");
+
+    @Test
+    void turnsTitlesIntoAnchorsLikeTheRegularExpressions() {
+        Random random = new Random(14);
+        for (int i = 0; i < 200_000; i++) {
+            StringBuilder title = new StringBuilder();
+            int length = random.nextInt(24);
+            for (int j = 0; j < length; j++) {
+                title.append(TITLE_CHARACTERS.charAt(random.nextInt(TITLE_CHARACTERS.length())));
+            }
+            assertEquals(toAnchorWithRegularExpressions(title.toString()), SectionIndex.toAnchor(title.toString()),
+                    title.toString());
+        }
+    }
+
+    @Test
+    void usesTheAnchorOfTheTitleBeforeHeadingsAreKnown() {
+        SectionIndex sections = SectionIndex.of(model(), SKOS.PREF_LABEL);
+
+        assertEquals("wing", sections.getAnchor(first));
+        assertEquals("wing", sections.getAnchor(second));
+        assertEquals("wing", sections.getAnchor(untitled));
+    }
+
+    @Test
+    void numbersDuplicateAnchorsInDocumentOrder() {
+        SectionIndex sections = SectionIndex.of(model(), SKOS.PREF_LABEL)
+                .inDocumentOrder(List.of(second, untitled, first, second));
+
+        assertEquals("wing", sections.getAnchor(second));
+        assertEquals("wing-0", sections.getAnchor(untitled));
+        assertEquals("wing-1", sections.getAnchor(first));
+        // resources without a heading in the document keep the anchor of their title
+        assertEquals("wing", sections.getAnchor(unrendered));
+    }
+
+    @Test
+    void skipsSuffixesTakenByOtherTitles() {
+        IRI suffixed = VF.createIRI(EX, "suffixed");
+        Model model = model();
+        model.add(suffixed, SKOS.PREF_LABEL, VF.createLiteral("Wing 0"));
+
+        SectionIndex sections = SectionIndex.of(model, SKOS.PREF_LABEL)
+                .inDocumentOrder(List.of(first, suffixed, second));
+
+        assertEquals("wing", sections.getAnchor(first));
+        assertEquals("wing-0", sections.getAnchor(suffixed));
+        assertEquals("wing-1", sections.getAnchor(second));
+    }
+
+    // the resource without a title is named after its local name, which gives the same anchor
+    private Model model() {
+        Model model = new LinkedHashModel();
+        model.add(unrendered, SKOS.PREF_LABEL, VF.createLiteral("Wing"));
+        model.add(first, SKOS.PREF_LABEL, VF.createLiteral("Wing"));
+        model.add(second, SKOS.PREF_LABEL, VF.createLiteral("wing"));
+        model.add(second, SKOS.PREF_LABEL, VF.createLiteral("Ignored"));
+        return model;
+    }
+
+    // the anchor rules as they were first written
+    private static String toAnchorWithRegularExpressions(String title) {
+        return title.trim()
+                .toLowerCase()
+                .replaceAll("[(,'\"!@#$%^&*;:)]", "")
+                .replaceAll("\\s", "-");
+    }
+}
@@ -0,0 +1,35 @@
+package com.skemu.rdf.rdf2respec;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.eclipse.rdf4j.model.Resource;
+import org.eclipse.rdf4j.model.ValueFactory;
+import org.eclipse.rdf4j.model.impl.SimpleValueFactory;
+import org.junit.jupiter.api.Test;
+
+class ShardPlanTest {
+
+    private static final ValueFactory VF = SimpleValueFactory.getInstance();
+
+    @Test
+    void namesShardsApartOnCaseInsensitiveFileSystems() {
+        List<Node> roots = List.of(node("Foo"), node("foo"), node("FOO"), node("foo_bar"));
+
+        ShardPlan plan = ShardPlan.of(Paths.get("out/a.md"), roots, 1, Resource::stringValue);
+
+        assertEquals(List.of("Foo.md", "foo-0.md", "FOO-1.md", "foo_bar.md"), plan.getShards()
+                .stream()
+                .map(ShardPlan.Shard::getPath)
+                .map(Path::getFileName)
+                .map(Path::toString)
+                .collect(Collectors.toList()));
+    }
+
+    private static Node node(String name) {
+        return new Node(VF.createBNode(name));
+    }
+}
@@ -0,0 +1,82 @@
+package com.skemu.rdf.rdf2respec;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.skemu.rdf.rdf2respec.sources.InputType;
+import com.skemu.rdf.rdf2respec.sources.Source;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.eclipse.rdf4j.repository.Repository;
+import org.eclipse.rdf4j.repository.RepositoryConnection;
+import org.eclipse.rdf4j.repository.sail.SailRepository;
+import org.eclipse.rdf4j.rio.RDFFormat;
+import org.eclipse.rdf4j.sail.memory.MemoryStore;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class StoreSourceTest {
+
+    private static final Path SAMPLE = Paths.get("src/test/resources/sample");
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void rendersAStoreLikeTheFilesItWasLoadedFrom() throws IOException {
+        // roots are in hash order, and blank nodes get a new id on every parse, so the blank root is left out
+        Path input = Files.createDirectories(directory.resolve("in"));
+        Path file = Files.writeString(input.resolve("a.ttl"), Files.readAllLines(SAMPLE.resolve("a.ttl"))
+                .stream()
+                .filter(line -> !line.startsWith("_:"))
+                .collect(Collectors.joining("\n")));
+        Path dataDir = directory.resolve("store");
+        load(dataDir, file);
+
+        assertEquals(Rdf2ReSpecProcessor.of(Rdf2ReSpecProcessorTest.sample(input)).serialize(),
+                Rdf2ReSpecProcessor.of(memoryStore(dataDir)).serialize());
+    }
+
+    @Test
+    void servesAStoreAgainAfterItChanged() throws IOException {
+        Path dataDir = directory.resolve("store");
+        load(dataDir, SAMPLE.resolve("a.ttl"));
+        Rdf2ReSpecServer server = Rdf2ReSpecServer.of(List.of(memoryStore(dataDir)), new ModelCache(1_000_000),
+                new RenderCache(1_000_000));
+
+        String first = render(server);
+        assertEquals(first, render(server));
+
+        load(dataDir, SAMPLE.resolve("sub/b.ttl"));
+        String second = render(server);
+        assertTrue(second.length() > first.length());
+    }
+
+    private static String render(Rdf2ReSpecServer server) {
+        return new String(server.render(0).orElseThrow().getContent(), StandardCharsets.UTF_8);
+    }
+
+    private static Source memoryStore(Path dataDir) {
+        Source source = Rdf2ReSpecProcessorTest.sample(dataDir);
+        source.setInputType(InputType.memoryStore);
+        return source;
+    }
+
+    // adds the statements of a file to a persisted memory store, creating it when there is none yet
+    static void load(Path dataDir, Path file) throws IOException {
+        Repository repository = new SailRepository(new MemoryStore(dataDir.toFile()));
+        repository.init();
+        try (RepositoryConnection connection = repository.getConnection();
+                InputStream in = Files.newInputStream(file)) {
+            connection.add(in, "", RDFFormat.TURTLE);
+        } finally {
+            repository.shutDown();
+        }
+    }
+}
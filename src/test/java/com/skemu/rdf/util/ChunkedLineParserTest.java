@@ -0,0 +1,137 @@
+package com.skemu.rdf.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.eclipse.rdf4j.model.Literal;
+import org.eclipse.rdf4j.model.Statement;
+import org.eclipse.rdf4j.rio.RDFFormat;
+import org.eclipse.rdf4j.rio.RDFParser;
+import org.eclipse.rdf4j.rio.Rio;
+import org.eclipse.rdf4j.rio.helpers.BasicParserSettings;
+import org.eclipse.rdf4j.rio.helpers.StatementCollector;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class ChunkedLineParserTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void parsesLikeRioAtEveryChunkSize() throws IOException {
+        for (RDFFormat format : List.of(RDFFormat.NTRIPLES, RDFFormat.NQUADS)) {
+            Path file = directory.resolve("small." + format.getDefaultFileExtension());
+            writeLines(file, format, 500, new Random(7));
+            List<Statement> expected = parseWithRio(file, format);
+
+            for (long chunkSize : new long[] {1, 7, 100, 4096, Long.MAX_VALUE / 2}) {
+                for (int parallelism : new int[] {1, 3}) {
+                    assertEquals(expected, parse(file, format, chunkSize, parallelism),
+                            format + " in chunks of " + chunkSize + " parsed " + parallelism + " ahead");
+                }
+            }
+        }
+    }
+
+    @Test
+    void parsesLinesAcrossTheDefaultChunkBoundary() throws IOException {
+        Path file = directory.resolve("large.nt");
+        Random random = new Random(11);
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            for (int i = 0; Files.size(file) <= ChunkedLineParser.DEFAULT_CHUNK_SIZE + 1024 * 1024; i++) {
+                for (int j = 0; j < 1_000; j++) {
+                    writer.write(line(random, i * 1_000 + j, false));
+                }
+                writer.flush();
+            }
+        }
+        assertStraddled(file, ChunkedLineParser.DEFAULT_CHUNK_SIZE);
+
+        List<Statement> expected = parseWithRio(file, RDFFormat.NTRIPLES);
+        List<Statement> actual = new ArrayList<>();
+        ChunkedLineParser.parse(file, RDFFormat.NTRIPLES, statement -> true, new StatementCollector(actual));
+        assertEquals(expected.size(), actual.size());
+        assertEquals(expected, actual);
+    }
+
+    @Test
+    void appliesTheFilter() throws IOException {
+        Path file = directory.resolve("filtered.nt");
+        writeLines(file, RDFFormat.NTRIPLES, 200, new Random(3));
+        List<Statement> expected = parseWithRio(file, RDFFormat.NTRIPLES);
+        expected.removeIf(statement -> !(statement.getObject() instanceof Literal));
+
+        List<Statement> actual = new ArrayList<>();
+        ChunkedLineParser.parse(file, RDFFormat.NTRIPLES, statement -> statement.getObject() instanceof Literal,
+                new StatementCollector(actual), 64, 2);
+        assertEquals(expected, actual);
+    }
+
+    private static List<Statement> parse(Path file, RDFFormat format, long chunkSize, int parallelism) {
+        List<Statement> statements = new ArrayList<>();
+        ChunkedLineParser.parse(file, format, statement -> true, new StatementCollector(statements), chunkSize,
+                parallelism);
+        return statements;
+    }
+
+    // blank node ids are kept by the chunked parser, so they are kept here too
+    private static List<Statement> parseWithRio(Path file, RDFFormat format) throws IOException {
+        List<Statement> statements = new ArrayList<>();
+        RDFParser parser = Rio.createParser(format);
+        parser.getParserConfig().set(BasicParserSettings.PRESERVE_BNODE_IDS, true);
+        parser.setRDFHandler(new StatementCollector(statements));
+        try (InputStream input = Files.newInputStream(file)) {
+            parser.parse(input, "");
+        }
+        return statements;
+    }
+
+    private static void writeLines(Path file, RDFFormat format, int count, Random random) throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            for (int i = 0; i < count; i++) {
+                writer.write(line(random, i, RDFFormat.NQUADS.equals(format)));
+            }
+        }
+    }
+
+    // lines of varying length, with blank nodes, escapes and multi-byte characters
+    private static String line(Random random, int i, boolean quad) {
+        String subject = random.nextInt(5) == 0 ? "_:b" + random.nextInt(20) : "<http://example.org/s" + i + ">";
+        String object;
+        switch (random.nextInt(4)) {
+            case 0:
+                object = "_:b" + random.nextInt(20);
+                break;
+            case 1:
+                object = "\"multi\\nline \\\"quoted\\\" é中\"@en";
+                break;
+            case 2:
+                object = "\"" + "x".repeat(random.nextInt(300)) + "\"";
+                break;
+            default:
+                object = "<http://example.org/o" + random.nextInt(1_000) + ">";
+        }
+        String graph = quad && random.nextBoolean() ? " <http://example.org/g" + random.nextInt(3) + ">" : "";
+        return subject + " <http://example.org/p> " + object + graph + " .\n";
+    }
+
+    private static void assertStraddled(Path file, long position) throws IOException {
+        try (FileChannel channel = FileChannel.open(file)) {
+            ByteBuffer lastByte = ByteBuffer.allocate(1);
+            channel.read(lastByte, position - 1);
+            assertNotEquals((byte) '\n', lastByte.get(0), "a line should not end right at the chunk boundary");
+        }
+    }
+}
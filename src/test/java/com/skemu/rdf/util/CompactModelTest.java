@@ -0,0 +1,133 @@
+package com.skemu.rdf.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import org.eclipse.rdf4j.model.IRI;
+import org.eclipse.rdf4j.model.Model;
+import org.eclipse.rdf4j.model.Resource;
+import org.eclipse.rdf4j.model.Statement;
+import org.eclipse.rdf4j.model.Value;
+import org.eclipse.rdf4j.model.ValueFactory;
+import org.eclipse.rdf4j.model.impl.LinkedHashModel;
+import org.eclipse.rdf4j.model.impl.SimpleValueFactory;
+import org.eclipse.rdf4j.model.vocabulary.SKOS;
+import org.eclipse.rdf4j.model.vocabulary.XMLSchema;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class CompactModelTest {
+
+    private static final ValueFactory VF = SimpleValueFactory.getInstance();
+
+    private static final String EX = "http://example.org/";
+
+    private final List<Resource> subjects = new ArrayList<>();
+
+    private final List<IRI> predicates = new ArrayList<>();
+
+    private final List<Value> objects = new ArrayList<>();
+
+    private final List<Resource> contexts = new ArrayList<>();
+
+    private LinkedHashModel expected;
+
+    private CompactModel actual;
+
+    @BeforeEach
+    void createModels() {
+        for (int i = 0; i < 20; i++) {
+            subjects.add(VF.createIRI(EX, "s" + i));
+        }
+        subjects.add(VF.createBNode("b0"));
+        predicates.add(SKOS.BROADER);
+        predicates.add(SKOS.PREF_LABEL);
+        predicates.add(VF.createIRI(EX, "p"));
+        objects.addAll(subjects);
+        objects.add(VF.createLiteral("label"));
+        objects.add(VF.createLiteral("label", "en"));
+        objects.add(VF.createLiteral("1", XMLSchema.INTEGER));
+        contexts.add(null);
+        contexts.add(VF.createIRI(EX, "graph"));
+
+        Random random = new Random(42);
+        List<Statement> statements = new ArrayList<>();
+        for (int i = 0; i < 2_000; i++) {
+            statements.add(VF.createStatement(pick(random, subjects), pick(random, predicates), pick(random, objects),
+                    pick(random, contexts)));
+        }
+
+        expected = new LinkedHashModel();
+        expected.setNamespace(SKOS.NS);
+        expected.addAll(statements);
+        actual = new CompactModel.Builder()
+                .addNamespace(SKOS.NS)
+                .addAll(statements)
+                .build();
+    }
+
+    @Test
+    void keepsInsertionOrderAndDropsDuplicates() {
+        assertEquals(expected.size(), actual.size());
+        assertEquals(new ArrayList<>(expected), new ArrayList<>(actual));
+    }
+
+    @Test
+    void filtersLikeLinkedHashModel() {
+        List<Resource> filterSubjects = withAbsent(subjects, VF.createIRI(EX, "absent"));
+        List<IRI> filterPredicates = withAbsent(predicates, VF.createIRI(EX, "absent"));
+        List<Value> filterObjects = withAbsent(objects, VF.createLiteral("absent"));
+        for (Resource subject : filterSubjects) {
+            for (IRI predicate : filterPredicates) {
+                for (Value object : filterObjects) {
+                    assertFilter(subject, predicate, object);
+                    assertFilter(subject, predicate, object, contexts.get(1));
+                    assertFilter(subject, predicate, object, (Resource) null);
+                }
+            }
+        }
+    }
+
+    @Test
+    void copiesModels() {
+        CompactModel copy = CompactModel.copyOf(expected);
+        assertEquals(new ArrayList<>(expected), new ArrayList<>(copy));
+        assertEquals(expected.getNamespaces(), copy.getNamespaces());
+        assertSame(copy, CompactModel.copyOf(copy));
+    }
+
+    @Test
+    void isReadOnly() {
+        assertThrows(UnsupportedOperationException.class,
+                () -> actual.add(subjects.get(0), predicates.get(0), objects.get(0)));
+        assertThrows(UnsupportedOperationException.class, () -> actual.clear());
+    }
+
+    private void assertFilter(Resource subject, IRI predicate, Value object, Resource... filterContexts) {
+        Model expectedFilter = expected.filter(subject, predicate, object, filterContexts);
+        Model actualFilter = actual.filter(subject, predicate, object, filterContexts);
+        String pattern = subject + " " + predicate + " " + object + " " + Arrays.toString(filterContexts);
+        assertEquals(new ArrayList<>(expectedFilter), new ArrayList<>(actualFilter), pattern);
+        assertEquals(expectedFilter.size(), actualFilter.size(), pattern);
+        assertEquals(expected.contains(subject, predicate, object, filterContexts),
+                actual.contains(subject, predicate, object, filterContexts), pattern);
+    }
+
+    private static <T> T pick(Random random, List<T> values) {
+        return values.get(random.nextInt(values.size()));
+    }
+
+    // null matches everything, and a value that is not in the model matches nothing
+    private static <T> List<T> withAbsent(List<T> values, T absent) {
+        List<T> withAbsent = new ArrayList<>();
+        withAbsent.add(null);
+        withAbsent.addAll(values);
+        withAbsent.add(absent);
+        return withAbsent;
+    }
+}
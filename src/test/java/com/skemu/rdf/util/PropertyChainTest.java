@@ -0,0 +1,208 @@
+package com.skemu.rdf.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.function.BiFunction;
+import org.eclipse.rdf4j.model.IRI;
+import org.eclipse.rdf4j.model.Model;
+import org.eclipse.rdf4j.model.Resource;
+import org.eclipse.rdf4j.model.ValueFactory;
+import org.eclipse.rdf4j.model.impl.LinkedHashModel;
+import org.eclipse.rdf4j.model.impl.SimpleValueFactory;
+import org.eclipse.rdf4j.model.vocabulary.RDFS;
+import org.eclipse.rdf4j.model.vocabulary.SKOS;
+import org.junit.jupiter.api.Test;
+
+class PropertyChainTest {
+
+    private static final ValueFactory VF = SimpleValueFactory.getInstance();
+
+    private static final String EX = "http://example.org/";
+
+    private static final List<IRI> PREDICATES = List.of(SKOS.BROADER, SKOS.BROADER_TRANSITIVE);
+
+    @Test
+    void followsChainsToTheirEnds() {
+        Model model = model("a", "b", "b", "c", "x", "b");
+        PropertyChain chain = PropertyChain.of(model, PREDICATES);
+
+        assertEquals(resources("c"), chain.getLastResources(iri("a")));
+        assertEquals(resources("a", "x"), chain.getFirstResources(iri("c")));
+        assertEquals(resources("a", "x"), chain.getFirstResources(iri("b")));
+        assertEquals(resources("a", "b", "x"), chain.getSubjects());
+    }
+
+    @Test
+    void returnsTheStartWhenThereIsNothingToFollow() {
+        PropertyChain chain = PropertyChain.of(model("a", "b"), PREDICATES);
+
+        assertEquals(resources("b"), chain.getLastResources(iri("b")));
+        assertEquals(resources("unrelated"), chain.getLastResources(iri("unrelated")));
+    }
+
+    @Test
+    void returnsEveryResourceOfACycleWithoutAWayOut() {
+        PropertyChain chain = PropertyChain.of(model("s", "a", "a", "b", "b", "c", "c", "a"), PREDICATES);
+
+        assertEquals(resources("a", "b", "c"), chain.getLastResources(iri("s")));
+        assertEquals(resources("a", "b", "c"), chain.getLastResources(iri("b")));
+        assertEquals(resources("s"), chain.getFirstResources(iri("c")));
+    }
+
+    @Test
+    void leavesACycleWithAWayOut() {
+        PropertyChain chain = PropertyChain.of(model("a", "b", "b", "a", "b", "c", "a", "d"), PREDICATES);
+
+        assertEquals(resources("c", "d"), chain.getLastResources(iri("a")));
+        assertEquals(resources("a", "b"), chain.getFirstResources(iri("c")));
+    }
+
+    @Test
+    void ignoresLiteralObjects() {
+        Model model = model("a", "b");
+        model.add(iri("b"), SKOS.BROADER, VF.createLiteral("literal"));
+        model.add(iri("l"), SKOS.BROADER, VF.createLiteral("literal"));
+        PropertyChain chain = PropertyChain.of(model, PREDICATES);
+
+        assertEquals(resources("b"), chain.getLastResources(iri("a")));
+        assertEquals(resources("l"), chain.getLastResources(iri("l")));
+        assertEquals(resources("a", "b", "l"), chain.getSubjects());
+    }
+
+    @Test
+    void followsDeepChainsWithoutRecursion() {
+        List<String> edges = new ArrayList<>();
+        for (int i = 0; i < 200_000; i++) {
+            edges.add("n" + i);
+            edges.add("n" + (i + 1));
+        }
+        PropertyChain chain = PropertyChain.of(model(edges.toArray(new String[0])), PREDICATES);
+
+        assertEquals(resources("n200000"), chain.getLastResources(iri("n0")));
+        assertEquals(resources("n0"), chain.getFirstResources(iri("n200000")));
+    }
+
+    @Test
+    void matchesReachabilityOnRandomGraphsWithCycles() {
+        Random random = new Random(16);
+        for (int graph = 0; graph < 200; graph++) {
+            int size = 2 + random.nextInt(30);
+            List<String> edges = new ArrayList<>();
+            int edgeCount = random.nextInt(size * 2);
+            for (int i = 0; i < edgeCount; i++) {
+                edges.add("n" + random.nextInt(size));
+                edges.add("n" + random.nextInt(size));
+            }
+            Model model = model(edges.toArray(new String[0]));
+            PropertyChain chain = PropertyChain.of(model, PREDICATES);
+
+            // ends are memoized between calls, so resources are asked for in a random order
+            List<Resource> starts = new ArrayList<>();
+            for (int i = 0; i < size; i++) {
+                starts.add(iri("n" + i));
+            }
+            Collections.shuffle(starts, random);
+            for (Resource start : starts) {
+                assertEquals(ends(model, start, PropertyChainTest::successors), chain.getLastResources(start),
+                        "last resources of " + start + " in " + edges);
+                assertEquals(ends(model, start, PropertyChainTest::predecessors), chain.getFirstResources(start),
+                        "first resources of " + start + " in " + edges);
+            }
+        }
+    }
+
+    @Test
+    void leavesTheModelAlone() {
+        Model model = model("a", "b", "b", "c");
+        model.add(iri("other"), RDFS.LABEL, VF.createLiteral("other"));
+        Model copy = new LinkedHashModel(model);
+
+        assertEquals(resources("a", "other"),
+                ModelUtil.getFirstResourcesInPropertyChain(model, "*", SKOS.BROADER, SKOS.BROADER_TRANSITIVE));
+        assertEquals(resources("c"), ModelUtil.getLastResourcesInPropertyChain(model, "+", SKOS.BROADER,
+                SKOS.BROADER_TRANSITIVE));
+        assertEquals(copy, model);
+    }
+
+    @Test
+    void rejectsUnknownOperators() {
+        assertThrows(IllegalArgumentException.class,
+                () -> ModelUtil.getFirstResourcesInPropertyChain(model("a", "b"), "?", SKOS.BROADER));
+    }
+
+    // the reachable resources from which everything reachable leads back to them, which are the ends of cycles too
+    private static Set<Resource> ends(Model model, Resource start,
+            BiFunction<Model, Resource, Set<Resource>> edges) {
+        Set<Resource> ends = new HashSet<>();
+        for (Resource resource : reachable(model, start, edges)) {
+            boolean end = true;
+            for (Resource next : reachable(model, resource, edges)) {
+                end &= reachable(model, next, edges).contains(resource);
+            }
+            if (end) {
+                ends.add(resource);
+            }
+        }
+        return ends;
+    }
+
+    private static Set<Resource> reachable(Model model, Resource start,
+            BiFunction<Model, Resource, Set<Resource>> edges) {
+        Set<Resource> reachable = new HashSet<>();
+        Deque<Resource> pending = new ArrayDeque<>();
+        pending.push(start);
+        while (!pending.isEmpty()) {
+            Resource resource = pending.pop();
+            if (reachable.add(resource)) {
+                pending.addAll(edges.apply(model, resource));
+            }
+        }
+        return reachable;
+    }
+
+    private static Set<Resource> successors(Model model, Resource resource) {
+        Set<Resource> successors = new HashSet<>();
+        for (IRI predicate : PREDICATES) {
+            model.filter(resource, predicate, null).objects().forEach(object -> successors.add((Resource) object));
+        }
+        return successors;
+    }
+
+    private static Set<Resource> predecessors(Model model, Resource resource) {
+        Set<Resource> predecessors = new HashSet<>();
+        for (IRI predicate : PREDICATES) {
+            predecessors.addAll(model.filter(null, predicate, resource).subjects());
+        }
+        return predecessors;
+    }
+
+    // pairs of subject and object names, alternating between the predicates
+    private static Model model(String... edges) {
+        Model model = new LinkedHashModel();
+        for (int i = 0; i < edges.length; i += 2) {
+            model.add(iri(edges[i]), PREDICATES.get(i / 2 % PREDICATES.size()), iri(edges[i + 1]));
+        }
+        return model;
+    }
+
+    private static Set<Resource> resources(String... names) {
+        Set<Resource> resources = new HashSet<>();
+        for (String name : names) {
+            resources.add(iri(name));
+        }
+        return resources;
+    }
+
+    private static IRI iri(String name) {
+        return VF.createIRI(EX, name);
+    }
+}